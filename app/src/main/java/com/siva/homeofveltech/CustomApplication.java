@@ -3,13 +3,75 @@ package com.siva.homeofveltech;
 import android.app.Application;
 import android.content.Intent;
 
+import com.siva.homeofveltech.Network.OkHttpProvider;
+import com.siva.homeofveltech.Network.PersistentDns;
+import com.siva.homeofveltech.Network.SimpleCookieJar;
+import com.siva.homeofveltech.Storage.PrefsManager;
+import com.siva.homeofveltech.Utils.Diagnostics;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 import com.siva.homeofveltech.services.SessionRenewalService;
 
+import java.util.concurrent.Executor;
+
 public class CustomApplication extends Application {
 
+    private static final String TAG = "CustomApplication";
+
     @Override
     public void onCreate() {
         super.onCreate();
+        // keystore + Tink setup off the main thread; screens get the instance already open
+        PrefsManager.warmUp(this);
+        installCookiePersistence();
+        installDnsCache();
+        OkHttpProvider.getCircuitBreaker().addListener((host, from, to) ->
+                Diagnostics.log(TAG, () -> "Circuit " + host + ": " + from + " -> " + to));
+        // off the main thread: the first prefs access opens the keystore
+        maintenance("install-id").execute(() ->
+                OkHttpProvider.getRefreshThrottle().setInstallId(prefs().getInstallId()));
         startService(new Intent(this, SessionRenewalService.class));
     }
+
+    /**
+     * Keeps the AMS session cookies in the encrypted prefs so a cold start can reuse a live session.
+     * Both load and save happen on background threads (first request / maintenance lane).
+     */
+    private void installCookiePersistence() {
+        OkHttpProvider.setCookiePersistence(new SimpleCookieJar.Persistence() {
+            @Override
+            public String load() {
+                return prefs().getCookies();
+            }
+
+            @Override
+            public void save(String serialized) {
+                prefs().saveCookies(serialized);
+            }
+        }, maintenance("cookie-flush"));
+    }
+
+    /** Persists DNS answers so a cold start can skip the lookup. */
+    private void installDnsCache() {
+        PersistentDns dns = new PersistentDns(new PersistentDns.Persistence() {
+            @Override
+            public String load() {
+                return prefs().getDnsCache();
+            }
+
+            @Override
+            public void save(String serialized) {
+                prefs().saveDnsCache(serialized);
+            }
+        }, maintenance("dns-flush"));
+
+        OkHttpProvider.configure(dns);
+    }
+
+    private PrefsManager prefs() {
+        return PrefsManager.getInstance(this);
+    }
+
+    private static Executor maintenance(String tag) {
+        return r -> TaskScheduler.get().submit(TaskScheduler.Lane.MAINTENANCE, tag, r);
+    }
 }
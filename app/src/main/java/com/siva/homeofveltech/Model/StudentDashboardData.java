@@ -11,17 +11,28 @@ public class StudentDashboardData {
     public final double overallAttendancePercent; // -1 if not found
     public final double overallGpa;
     public final Map<String, List<TimetableItem>> weekTimetable;
+    /** Results the GPA was computed from; only set on a freshly fetched instance, never cached. */
+    public final transient List<SemesterResult> semesterResults;
 
     public StudentDashboardData(String studentName, String branch,
                                 double overallAttendancePercent,
                                 double overallGpa,
                                 Map<String, List<TimetableItem>> weekTimetable) {
+        this(studentName, branch, overallAttendancePercent, overallGpa, weekTimetable, null);
+    }
+
+    public StudentDashboardData(String studentName, String branch,
+                                double overallAttendancePercent,
+                                double overallGpa,
+                                Map<String, List<TimetableItem>> weekTimetable,
+                                List<SemesterResult> semesterResults) {
 
         this.studentName = studentName == null ? "" : studentName.trim();
         this.branch = branch == null ? "" : branch.trim();
         this.overallAttendancePercent = overallAttendancePercent;
         this.overallGpa = overallGpa;
         this.weekTimetable = weekTimetable == null ? new HashMap<>() : weekTimetable;
+        this.semesterResults = semesterResults;
     }
 
     public List<TimetableItem> getTimetableForDay(String dayName) {
@@ -7,6 +7,8 @@ import com.siva.homeofveltech.Model.StudentProfile;
 import com.siva.homeofveltech.Model.SubjectAttendanceItem;
 import com.siva.homeofveltech.Model.SubjectGrade;
 import com.siva.homeofveltech.Model.TimetableItem;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.Pipeline;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -17,24 +19,50 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.FormBody;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
-
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Scraper for the AMS portal. Thread-safe: one instance (see {@link AmsRepository#getClient()}) is
+ * shared by every screen and scheduler worker. The client keeps no per-flow state; login-page
+ * hidden fields, {@link AttendancePageSnapshot}s and the results {@code PageState} chain are
+ * passed explicitly through each call. Requests issued from a {@link com.siva.homeofveltech.Utils.TaskScheduler}
+ * task are cancelled with it. What is shared is the cookie jar (one AMS session per app),
+ * {@link SessionTracker} and the counters, all safe for concurrent use.
+ */
 public class AmsClient {
 
     private static final String BASE = "https://ams.veltech.edu.in/";
@@ -43,16 +71,28 @@ public class AmsClient {
     private static final String ATTENDANCE_URL = BASE + "Attendance.aspx";
     private static final String SEMESTER_MARK_URL = BASE + "SemesterMark.aspx";
 
+    private static final Set<String> LOGIN_FORM_IDS = Collections.singleton("txtUserName");
+
+    /** Parsed-but-unconsumed panels a crawl may run ahead by. */
+    private static final int PIPELINE_CAPACITY = 4;
+
     private final OkHttpClient client;
-    private String username;
-    private String password;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final SessionTracker session = SessionTracker.getInstance();
+    private volatile boolean asyncResultsPostBack = true;
+    private volatile CrawlStats lastResultsCrawl;
+    private volatile RequestHedger hedger;
 
     public AmsClient() {
-        this.client = OkHttpProvider.getClient();
+        this(OkHttpProvider.getClient());
     }
 
     public AmsClient(OkHttpClient client) {
-        this.client = client;
+        // shares the pool / cookie jar of the given client, only adds response byte counting
+        this.client = client.newBuilder()
+                .addNetworkInterceptor(this::countResponseBytes)
+                .build();
     }
 
     // -------------------- LOGIN --------------------
@@ -88,9 +128,6 @@ public class AmsClient {
 
     /** Returns true if login success, false if invalid credentials */
     public boolean login(String username, String password, String captcha, Map<String, String> hiddenFields) throws IOException {
-        this.username = username;
-        this.password = password;
-
         FormBody.Builder fb = new FormBody.Builder();
         for (Map.Entry<String, String> e : hiddenFields.entrySet()) {
             fb.add(e.getKey(), e.getValue() == null ? "" : e.getValue());
@@ -109,21 +146,21 @@ public class AmsClient {
                 .header("User-Agent", "Mozilla/5.0")
                 .build();
 
-        try (Response res = client.newCall(post).execute()) {
+        // Success redirects away from index.aspx; a failed attempt re-renders the login form
+        try (Response res = execute(post)) {
             if (!res.isSuccessful()) throw new IOException("POST login failed: " + res.code());
-        }
 
-        return isSessionValid();
-    }
-
-    /** Checks if session is still valid */
-    public boolean isSessionValid() {
-        try {
-            String html = get(ATTENDANCE_URL);
-            return !(html.contains("STUDENT LOGIN") || html.contains("txtUserName"));
-        } catch (Exception e) {
-            return false;
+            boolean loginFormAgain = SessionTracker.isLoginUrl(res.request().url())
+                    && res.body() != null
+                    && HtmlExtractor.extract(res.body().charStream(), LOGIN_URL, LOGIN_FORM_IDS).loginForm;
+            if (loginFormAgain) {
+                session.markExpired();
+                return false;
+            }
         }
+
+        session.markGood();
+        return true;
     }
 
     public static class SessionExpiredException extends IOException {
@@ -132,141 +169,500 @@ public class AmsClient {
         }
     }
 
-    private void renewSession() throws IOException {
-        throw new SessionExpiredException();
-    }
+    // -------------------- ATTENDANCE PAGE SNAPSHOT --------------------
 
-    private void ensureSession() throws IOException {
-        if (!isSessionValid()) renewSession();
+    /**
+     * Loads Attendance.aspx once and validates the session from the same document.
+     * Pass the returned snapshot to the overloads below to reuse it across parsers.
+     */
+    public AttendancePageSnapshot fetchAttendancePage() throws IOException {
+        HtmlExtractor.Result page = getExtract(ATTENDANCE_URL, AttendancePageSnapshot.ELEMENT_IDS);
+        session.check(page);
+        return new AttendancePageSnapshot(page);
     }
 
     // -------------------- PROFILE --------------------
 
     public StudentProfile fetchStudentProfile() throws IOException {
-        ensureSession();
-        String html = get(ATTENDANCE_URL);
-        Document doc = Jsoup.parse(html);
-
-        String studentName = textOrEmpty(doc.selectFirst("#MainContent_lblName"));
-        String branch = textOrEmpty(doc.selectFirst("#MainContent_lblBranch"));
-
-        return new StudentProfile(studentName, branch);
+        return fetchAttendancePage().getProfile();
     }
 
     // -------------------- ATTENDANCE (SUMMARY GRID) --------------------
 
     public List<SubjectAttendanceItem> fetchAttendanceData() throws IOException {
-        ensureSession();
-        String html = get(ATTENDANCE_URL);
-        Document doc = Jsoup.parse(html);
+        return fetchAttendancePage().getAttendanceItems();
+    }
 
-        List<SubjectAttendanceItem> attendanceList = new ArrayList<>();
-        Elements rows = doc.select("#MainContent_GridView4 tr");
+    // -------------------- SUBJECT FULL ATTENDANCE (FIXED) --------------------
 
-        for (int i = 1; i < rows.size(); i++) {
-            Element row = rows.get(i);
-            Elements cols = row.select("td");
-
-            if (cols.size() >= 13) {
-                String subjectName = cols.get(2).text();
-                String subjectCode = cols.get(1).text();
-                String facultyName = cols.get(12).text();
-                int totalSessions = safeInt(cols.get(4).text());
-                int conductedSessions = safeInt(cols.get(5).text());
-                int attendedSessions = safeInt(cols.get(6).text());
-                int absent = safeInt(cols.get(7).text());
-                int presentPercentage = safeInt(cols.get(8).text());
-                int overallPercentage = safeInt(cols.get(9).text());
-
-                attendanceList.add(new SubjectAttendanceItem(
-                        subjectName,
-                        subjectCode,
-                        facultyName,
-                        totalSessions,
-                        attendedSessions,
-                        conductedSessions,
-                        absent,
-                        presentPercentage,
-                        overallPercentage
-                ));
-            }
+    public List<PeriodAttendanceItem> fetchSubjectFullAttendance(String subjectCode, String subjectName) throws IOException {
+        return fetchSubjectFullAttendance(fetchAttendancePage(), subjectCode, subjectName);
+    }
+
+    public List<PeriodAttendanceItem> fetchSubjectFullAttendance(AttendancePageSnapshot page,
+                                                                 String subjectCode,
+                                                                 String subjectName) throws IOException {
+        String exactCourseValue = page.findCourseValue(subjectCode);
+        if (exactCourseValue == null) return new ArrayList<>();
+
+        DeltaResponse delta = postAttendanceQuery(page, page.getHiddenFields(), AttendanceMode.COURSEWISE,
+                exactCourseValue, page.getSelectedYear(), page.getSelectedMonth());
+
+        return parseSubjectAttendanceDelta(delta, subjectName);
+    }
+
+    private List<PeriodAttendanceItem> parseSubjectAttendanceDelta(DeltaResponse delta, String subjectName) {
+        String panelHtml = delta.updatePanel("MainContent_UpdatePanel6");
+        if (panelHtml == null) return new ArrayList<>();
+
+        return parseSubjectAttendanceResponseFromPanel(panelHtml, subjectName);
+    }
+
+    // -------------------- ALL SUBJECTS FULL ATTENDANCE (BATCHED) --------------------
+
+    /** Receives each subject's period attendance as soon as its postback finishes. */
+    public interface SubjectFullAttendanceListener {
+        void onSubjectLoaded(String subjectCode, String subjectName, List<PeriodAttendanceItem> periods);
+    }
+
+    /** Request count, bytes received and wall time of one crawl, for before/after comparisons. */
+    public static class CrawlStats {
+        public final int requestCount;
+        public final int itemCount;
+        public final long bytesReceived;
+        public final long wallTimeMs;
+        /** Fetch / parse / persist stage timings when the crawl ran as a {@link Pipeline}, else null. */
+        public final Pipeline.Timings pipeline;
+
+        CrawlStats(int requestCount, int itemCount, long bytesReceived, long wallTimeMs, Pipeline.Timings pipeline) {
+            this.requestCount = requestCount;
+            this.itemCount = itemCount;
+            this.bytesReceived = bytesReceived;
+            this.wallTimeMs = wallTimeMs;
+            this.pipeline = pipeline;
+        }
+
+        public long bytesPerItem() {
+            return itemCount == 0 ? 0 : bytesReceived / itemCount;
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requestCount + ", items=" + itemCount + ", bytes=" + bytesReceived
+                    + " (" + bytesPerItem() + "/item), wallTimeMs=" + wallTimeMs
+                    + (pipeline == null ? "" : ", pipeline[" + pipeline + "]");
         }
-        return attendanceList;
     }
 
-    // -------------------- SUBJECT FULL ATTENDANCE (FIXED) --------------------
+    private CrawlStats statsSince(int startRequests, long startBytes, long startMs, int items) {
+        return statsSince(startRequests, startBytes, startMs, items, null);
+    }
 
-    public List<PeriodAttendanceItem> fetchSubjectFullAttendance(String subjectCode, String subjectName) throws IOException {
-        ensureSession();
+    private CrawlStats statsSince(int startRequests, long startBytes, long startMs, int items,
+                                  Pipeline.Timings pipeline) {
+        return new CrawlStats(requestCount.get() - startRequests, items,
+                bytesReceived.get() - startBytes, System.currentTimeMillis() - startMs, pipeline);
+    }
 
-        String html = get(ATTENDANCE_URL);
-        Document doc = Jsoup.parse(html);
+    public CrawlStats fetchAllSubjectsFullAttendance(SubjectFullAttendanceListener listener) throws IOException {
+        long startMs = System.currentTimeMillis();
+        int startRequests = requestCount.get();
+        long startBytes = bytesReceived.get();
+        AttendancePageSnapshot page = fetchAttendancePage();
+        CrawlStats crawl = fetchAllSubjectsFullAttendance(page, listener);
+        return statsSince(startRequests, startBytes, startMs, crawl.itemCount, crawl.pipeline);
+    }
 
-        Element courseDropdown = doc.selectFirst("#MainContent_Courselist");
-        String exactCourseValue = null;
+    /**
+     * Runs the "Coursewise Attendance" postback for every MainContent_Courselist option using a
+     * single page load. Each delta response carries fresh hidden fields which feed the next postback.
+     * A failed subject is skipped; the chain resumes from the last good hidden fields.
+     *
+     * Only the postbacks run on the calling thread: each panel is parsed on a {@link Pipeline}
+     * stage and {@code listener} is called, in course order, on its persist stage while the next
+     * postback is in flight. All calls have happened when this returns.
+     */
+    public CrawlStats fetchAllSubjectsFullAttendance(AttendancePageSnapshot page,
+                                                     SubjectFullAttendanceListener listener) throws IOException {
+        long startMs = System.currentTimeMillis();
+        int startRequests = requestCount.get();
+        long startBytes = bytesReceived.get();
+
+        Map<String, String> codeToName = subjectNamesByCode(page);
+        Map<String, String> hidden = page.getHiddenFields();
+        AtomicInteger loaded = new AtomicInteger();
 
-        if (courseDropdown != null) {
-            for (Element option : courseDropdown.select("option")) {
-                String value = option.attr("value");
-                if (value != null && value.startsWith(subjectCode + "-")) {
-                    exactCourseValue = value;
-                    break;
+        Pipeline pipeline = new Pipeline("ams-attendance", PIPELINE_CAPACITY);
+        try {
+            for (String courseValue : page.getCourseOptions()) {
+                String subjectCode = courseCodeOf(courseValue, codeToName.keySet());
+                if (subjectCode == null) continue;
+
+                String name = codeToName.get(subjectCode);
+                String subjectName = name != null ? name : courseValue.substring(subjectCode.length() + 1).trim();
+
+                DeltaResponse delta;
+                try {
+                    delta = postAttendanceQuery(page, hidden, AttendanceMode.COURSEWISE, courseValue,
+                            page.getSelectedYear(), page.getSelectedMonth());
+                } catch (SessionExpiredException | CancellationToken.CancelledException e) {
+                    throw e;
+                } catch (IOException e) {
+                    continue;
                 }
+
+                hidden = delta.mergeHiddenFields(hidden);
+
+                String panelHtml = delta.updatePanel("MainContent_UpdatePanel6");
+                if (panelHtml == null) continue; // no grid came back: skipped like a failed postback
+
+                pipeline.submit(panelHtml,
+                        html -> parseSubjectAttendanceResponseFromPanel(html, subjectName),
+                        periods -> {
+                            loaded.incrementAndGet();
+                            if (listener != null) listener.onSubjectLoaded(subjectCode, subjectName, periods);
+                        });
             }
+
+            Pipeline.Timings timings = pipeline.finish();
+            return statsSince(startRequests, startBytes, startMs, loaded.get(), timings);
+        } finally {
+            pipeline.abort();
         }
+    }
 
-        if (exactCourseValue == null) return new ArrayList<>();
+    /**
+     * Subject code of a MainContent_Courselist value ("CODE-Name"): the known code it starts with,
+     * as {@link AttendancePageSnapshot#findCourseValue} matches them, so codes containing '-' stay
+     * whole. A course missing from {@code knownCodes} falls back to the text before the first '-'.
+     * Null if the value has no code at all.
+     */
+    static String courseCodeOf(String courseValue, Collection<String> knownCodes) {
+        String best = null;
+        for (String code : knownCodes) {
+            if (courseValue.startsWith(code + "-") && (best == null || code.length() > best.length())) best = code;
+        }
+        if (best != null) return best;
+
+        int dash = courseValue.indexOf('-');
+        return dash > 0 ? courseValue.substring(0, dash).trim() : null;
+    }
 
-        String selectedYear = null;
-        Element yearDropdown = doc.selectFirst("#MainContent_DropDownList2");
-        if (yearDropdown != null) {
-            for (Element option : yearDropdown.select("option")) {
-                String val = option.attr("value");
-                if (val != null && !val.equals("Select Year") && !val.equals("0") && !val.trim().isEmpty()) {
-                    selectedYear = val;
-                    break;
+    /** Subject names as shown on the attendance grid (same as the per-subject cache keys), by code. */
+    private static Map<String, String> subjectNamesByCode(AttendancePageSnapshot page) {
+        Map<String, String> codeToName = new HashMap<>();
+        for (SubjectAttendanceItem item : page.getAttendanceItems()) {
+            if (item.subjectCode != null) codeToName.put(item.subjectCode.trim(), item.subjectName);
+        }
+        return codeToName;
+    }
+
+    // -------------------- ALL SUBJECTS BY MONTH / DATE RANGE --------------------
+
+    /**
+     * ctl00$MainContent$g1 modes of Attendance.aspx used here; Button1 runs the query for the selected
+     * mode. Date ranges are served month-wise (see {@link #fetchAttendanceBetween}), not by RadioButton1.
+     */
+    public enum AttendanceMode {
+        MONTHWISE("RadioButton2"),
+        COURSEWISE("RadioButton3");
+
+        public final String groupValue;
+
+        AttendanceMode(String groupValue) {
+            this.groupValue = groupValue;
+        }
+    }
+
+    /** Period attendance of every subject for one month (1-12), from a single postback, keyed by subject code. */
+    public Map<String, List<PeriodAttendanceItem>> fetchMonthAttendance(AttendancePageSnapshot page,
+                                                                        int year, int month) throws IOException {
+        Map<String, List<PeriodAttendanceItem>> out = new LinkedHashMap<>();
+        fetchMonthAttendance(page, page.getHiddenFields(), year, month, out);
+        return out;
+    }
+
+    /**
+     * Period attendance of every subject between {@code from} and {@code to} (inclusive, by day),
+     * keyed by subject code. One postback per calendar month in the range, chained on the same
+     * page's hidden fields; e.g. "this week" is one request, two when it spans a month boundary.
+     */
+    public Map<String, List<PeriodAttendanceItem>> fetchAttendanceBetween(AttendancePageSnapshot page,
+                                                                          Date from, Date to) throws IOException {
+        Calendar start = dayStart(from);
+        Calendar end = dayStart(to);
+
+        Map<String, List<PeriodAttendanceItem>> all = new LinkedHashMap<>();
+        Map<String, String> hidden = page.getHiddenFields();
+
+        Calendar month = (Calendar) start.clone();
+        month.set(Calendar.DAY_OF_MONTH, 1);
+        while (!month.after(end)) {
+            hidden = fetchMonthAttendance(page, hidden,
+                    month.get(Calendar.YEAR), month.get(Calendar.MONTH) + 1, all);
+            month.add(Calendar.MONTH, 1);
+        }
+
+        // keep only the requested days
+        Map<String, List<PeriodAttendanceItem>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, List<PeriodAttendanceItem>> e : all.entrySet()) {
+            List<PeriodAttendanceItem> inRange = new ArrayList<>();
+            for (PeriodAttendanceItem item : e.getValue()) {
+                Date d = parseAttendanceDate(item.date);
+                if (d != null && !d.before(start.getTime()) && !d.after(end.getTime())) inRange.add(item);
+            }
+            if (!inRange.isEmpty()) out.put(e.getKey(), inRange);
+        }
+        return out;
+    }
+
+    // -------------------- ATTENDANCE HISTORY (INCREMENTAL) --------------------
+
+    /**
+     * Brings {@code state} up to date and hands every subject's full history to {@code listener}.
+     * The first sync (or a semester change) seeds it with the course-wise crawl; after that only
+     * the still-open months (current and previous, plus any skipped since the last sync) are
+     * re-fetched with one month-wise postback each, and older months are never requested again.
+     * Months the month dropdown does not offer are left as they are. If a month query fails or its
+     * grid cannot be read, the sync falls back to a full re-seed instead of touching that month.
+     */
+    public CrawlStats syncAttendanceHistory(AttendancePageSnapshot page, AttendanceSyncState state,
+                                            SubjectFullAttendanceListener listener) throws IOException {
+        long startMs = System.currentTimeMillis();
+        int startRequests = requestCount.get();
+        long startBytes = bytesReceived.get();
+        long now = System.currentTimeMillis();
+
+        Map<String, String> codeToName = subjectNamesByCode(page);
+        List<String> codes = new ArrayList<>();
+        for (String courseValue : page.getCourseOptions()) {
+            String code = courseCodeOf(courseValue, codeToName.keySet());
+            if (code != null) codes.add(code);
+        }
+
+        state.retainSubjects(codes);
+        boolean seeded = !state.needsSeed() && state.subjects.keySet().containsAll(codes);
+
+        if (seeded) {
+            try {
+                Map<String, String> hidden = page.getHiddenFields();
+                for (int[] ym : state.monthsToFetch(now)) {
+                    // e.g. last month before the semester began: nothing on AMS to refresh
+                    if (page.findMonthValue(ym[1]) == null) continue;
+                    Map<String, List<PeriodAttendanceItem>> month = new LinkedHashMap<>();
+                    hidden = fetchMonthAttendance(page, hidden, ym[0], ym[1], month);
+                    state.replaceMonth(ym[0], ym[1], month, codeToName);
                 }
+            } catch (SessionExpiredException e) {
+                throw e;
+            } catch (IOException e) {
+                seeded = false;
             }
         }
-        if (selectedYear == null) selectedYear = "2025";
 
-        String monthVal = getFirstOrSelectedOptionValue(doc, "MainContent_DropDownList1");
+        Pipeline.Timings seedPipeline = null;
+        if (!seeded) {
+            state.subjects.clear();
+            seedPipeline = fetchAllSubjectsFullAttendance(page, (code, name, periods) -> {
+                if (state.subjects.isEmpty() && !periods.isEmpty()) {
+                    state.newestFirst = AttendanceSyncState.isNewestFirst(periods);
+                }
+                state.replaceAll(code, name, periods);
+            }).pipeline;
+        }
+        state.markSynced(now);
+
+        int subjects = 0;
+        for (Map.Entry<String, AttendanceSyncState.SubjectHistory> e : state.subjects.entrySet()) {
+            String name = codeToName.get(e.getKey());
+            if (name == null) name = e.getValue().subjectName;
+            if (listener != null) listener.onSubjectLoaded(e.getKey(), name, state.flatten(e.getKey()));
+            subjects++;
+        }
+        return statsSince(startRequests, startBytes, startMs, subjects, seedPipeline);
+    }
+
+    /** Posts one month query, adds its rows to {@code into}, and returns the hidden fields for the next postback. */
+    private Map<String, String> fetchMonthAttendance(AttendancePageSnapshot page, Map<String, String> hidden,
+                                                     int year, int month,
+                                                     Map<String, List<PeriodAttendanceItem>> into) throws IOException {
+        String monthValue = page.findMonthValue(month);
+        if (monthValue == null) throw new IOException("Month " + month + " not offered by Attendance.aspx");
+
+        List<String> courses = page.getCourseOptions();
+        DeltaResponse delta = postAttendanceQuery(page, hidden, AttendanceMode.MONTHWISE,
+                courses.isEmpty() ? null : courses.get(0), String.valueOf(year), monthValue);
+
+        String panelHtml = delta.updatePanel("MainContent_UpdatePanel6");
+        if (panelHtml == null) throw new IOException("Month " + month + " query returned no attendance panel");
+
+        Map<String, String> codeToName = subjectNamesByCode(page);
+        Set<String> knownCodes = new HashSet<>(codeToName.keySet());
+        for (String courseValue : courses) {
+            String code = courseCodeOf(courseValue, codeToName.keySet());
+            if (code != null) knownCodes.add(code);
+        }
+        splitAttendanceByCourse(panelHtml, codeToName, knownCodes, into);
+        return delta.mergeHiddenFields(hidden);
+    }
+
+    /**
+     * Splits an all-subject GridView1 into per-subject lists. Columns are located from the header
+     * row (course code / course name / date / period / status) with the course-wise layout as fallback.
+     * No grid means no rows that month. A grid with data rows of which none belongs to one of
+     * {@code knownCodes} is a layout this parser does not understand: it throws rather than
+     * reporting an empty month, so callers never drop stored rows on a misread.
+     */
+    static void splitAttendanceByCourse(String panelHtml, Map<String, String> codeToName, Set<String> knownCodes,
+                                        Map<String, List<PeriodAttendanceItem>> into) throws IOException {
+        Document doc = Jsoup.parse(panelHtml);
+
+        Element table = doc.getElementById("MainContent_GridView1");
+        if (table == null) return;
+
+        Elements rows = table.select("tr");
+        if (rows.size() < 2) return;
+
+        int codeIdx = -1;
+        int nameIdx = -1;
+        int dateIdx = -1;
+        int slotIdx = -1;
+        int statusIdx = -1;
+
+        Elements header = rows.get(0).select("th");
+        for (int i = 0; i < header.size(); i++) {
+            String h = header.get(i).text().trim().toLowerCase(Locale.US);
+            if (h.contains("code")) codeIdx = i;
+            else if (h.contains("course") || h.contains("subject")) nameIdx = i;
+            else if (h.contains("date")) dateIdx = i;
+            else if (h.contains("period") || h.contains("hour") || h.contains("time") || h.contains("slot")) slotIdx = i;
+            else if (h.contains("status") || h.contains("attendance")) statusIdx = i;
+        }
+
+        if (codeIdx == -1) codeIdx = 1;
+        if (nameIdx == -1) nameIdx = 2;
+        if (dateIdx == -1) dateIdx = 4;
+        if (slotIdx == -1) slotIdx = 5;
+        if (statusIdx == -1) statusIdx = 6;
 
+        int needed = Math.max(Math.max(Math.max(codeIdx, nameIdx), Math.max(dateIdx, slotIdx)), statusIdx);
+
+        Map<String, List<PeriodAttendanceItem>> parsed = new LinkedHashMap<>();
+        int dataRows = 0;
+        boolean anyKnown = false;
+        for (int i = 1; i < rows.size(); i++) {
+            Elements cols = rows.get(i).select("td");
+            if (cols.isEmpty()) continue;
+            dataRows++;
+            if (cols.size() <= needed) continue;
+
+            String code = cols.get(codeIdx).text().trim();
+            if (code.isEmpty()) continue;
+            if (knownCodes.contains(code)) anyKnown = true;
+
+            String name = codeToName.get(code);
+            if (name == null) name = cols.get(nameIdx).text().trim();
+
+            String date = formatDate(cols.get(dateIdx).text().trim());
+            String timeSlot = cols.get(slotIdx).text().trim();
+            boolean isPresent = cols.get(statusIdx).text().trim().equalsIgnoreCase("P");
+
+            List<PeriodAttendanceItem> list = parsed.get(code);
+            if (list == null) {
+                list = new ArrayList<>();
+                parsed.put(code, list);
+            }
+            list.add(new PeriodAttendanceItem(name, date, timeSlot, isPresent));
+        }
+
+        if (dataRows > 0 && !anyKnown) {
+            throw new IOException("Attendance grid not understood: " + dataRows + " rows, no known course code");
+        }
+        for (Map.Entry<String, List<PeriodAttendanceItem>> e : parsed.entrySet()) {
+            List<PeriodAttendanceItem> list = into.get(e.getKey());
+            if (list == null) into.put(e.getKey(), e.getValue());
+            else list.addAll(e.getValue());
+        }
+    }
+
+    private static Calendar dayStart(Date date) {
+        Calendar c = Calendar.getInstance();
+        c.setTime(date);
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+        return c;
+    }
+
+    /** PeriodAttendanceItem.date ("12-12-2025", also "12/12/2025") to a Date, null if unparseable. */
+    static Date parseAttendanceDate(String date) {
+        if (date == null) return null;
+        String d = date.trim().replace('/', '-');
+        try {
+            SimpleDateFormat sdf = new SimpleDateFormat("dd-MM-yyyy", Locale.US);
+            sdf.setLenient(false);
+            return sdf.parse(d);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** Async (delta) postback of Button1 with the given g1 mode, course, year and month. */
+    private DeltaResponse postAttendanceQuery(AttendancePageSnapshot page,
+                                              Map<String, String> hidden,
+                                              AttendanceMode mode,
+                                              String courseValue,
+                                              String selectedYear,
+                                              String monthVal) throws IOException {
+        try (Response res = execute(attendanceQuery(page, hidden, mode, courseValue, selectedYear, monthVal))) {
+            return readDelta(res);
+        }
+    }
+
+    private Request attendanceQuery(AttendancePageSnapshot page,
+                                    Map<String, String> hidden,
+                                    AttendanceMode mode,
+                                    String courseValue,
+                                    String selectedYear,
+                                    String monthVal) {
         FormBody.Builder fb = new FormBody.Builder();
 
         fb.add("ctl00$MainContent$ScriptManager1",
                 "ctl00$MainContent$UpdatePanel6|ctl00$MainContent$Button1");
 
-        Element textBox1 = doc.selectFirst("#MainContent_TextBox1");
+        String textBox1 = page.getTextBox1Value();
         if (textBox1 != null) {
-            fb.add("ctl00$MainContent$TextBox1", textBox1.attr("value"));
+            fb.add("ctl00$MainContent$TextBox1", textBox1);
         }
 
-        fb.add("ctl00$MainContent$Courselist", exactCourseValue);
+        if (courseValue != null) {
+            fb.add("ctl00$MainContent$Courselist", courseValue);
+        }
         fb.add("ctl00$MainContent$DropDownList2", selectedYear);
 
         if (monthVal != null && !monthVal.trim().isEmpty()) {
             fb.add("ctl00$MainContent$DropDownList1", monthVal);
         }
 
-        fb.add("ctl00$MainContent$g1", "RadioButton3");
+        fb.add("ctl00$MainContent$g1", mode.groupValue);
 
         fb.add("__EVENTTARGET", "");
         fb.add("__EVENTARGUMENT", "");
         fb.add("__LASTFOCUS", "");
 
-        for (Element input : doc.select("input[type=hidden][name]")) {
-            String name = input.attr("name");
+        for (Map.Entry<String, String> e : hidden.entrySet()) {
+            String name = e.getKey();
             if ("__EVENTTARGET".equals(name) || "__EVENTARGUMENT".equals(name) || "__LASTFOCUS".equals(name)) {
                 continue;
             }
-            fb.add(name, input.attr("value") == null ? "" : input.attr("value"));
+            fb.add(name, e.getValue() == null ? "" : e.getValue());
         }
 
         fb.add("__ASYNCPOST", "true");
         fb.add("ctl00$MainContent$Button1", "Coursewise Attendance");
 
-        Request post = new Request.Builder()
+        return new Request.Builder()
                 .url(ATTENDANCE_URL)
                 .post(fb.build())
                 .header("Referer", ATTENDANCE_URL)
@@ -276,19 +672,16 @@ public class AmsClient {
                 .header("X-Requested-With", "XMLHttpRequest")
                 .header("X-MicrosoftAjax", "Delta=true")
                 .build();
+    }
 
-        String delta;
-        try (Response res = client.newCall(post).execute()) {
-            if (!res.isSuccessful() || res.body() == null) {
-                throw new IOException("POST failed: " + res.code());
-            }
-            delta = res.body().string();
+    private DeltaResponse readDelta(Response res) throws IOException {
+        if (!res.isSuccessful() || res.body() == null) {
+            throw new IOException("POST failed: " + res.code());
         }
-
-        String panelHtml = extractUpdatePanelHtml(delta, "MainContent_UpdatePanel6");
-        if (panelHtml == null) return new ArrayList<>();
-
-        return parseSubjectAttendanceResponseFromPanel(panelHtml, subjectName);
+        String body = res.body().string();
+        DeltaResponse delta = DeltaResponse.parse(body);
+        session.check(delta, body);
+        return delta;
     }
 
     private List<PeriodAttendanceItem> parseSubjectAttendanceResponseFromPanel(String panelHtml, String courseName) {
@@ -320,141 +713,28 @@ public class AmsClient {
     // -------------------- DASHBOARD DATA --------------------
 
     public StudentDashboardData fetchStudentDashboardData() throws Exception {
-        ensureSession();
-
-        String html = get(ATTENDANCE_URL);
-        Document doc = Jsoup.parse(html);
-
-        String studentName = textOrEmpty(doc.selectFirst("#MainContent_lblName"));
-        String branch      = textOrEmpty(doc.selectFirst("#MainContent_lblBranch"));
-
-        Map<String, String> nameToCode = new HashMap<>();
-        Element courseTable = doc.getElementById("MainContent_GridView3");
-        if (courseTable != null) {
-            Elements rows = courseTable.select("tr");
-            for (int i = 1; i < rows.size(); i++) {
-                Elements tds = rows.get(i).select("td");
-                if (tds.size() >= 4) {
-                    String code = tds.get(2).text().trim();
-                    String name = tds.get(3).text().trim();
-                    if (!name.isEmpty() && !code.isEmpty()) {
-                        nameToCode.put(key(name), code);
-                    }
-                }
-            }
-        }
-
-        Map<String, List<TimetableItem>> timetableByDay = new HashMap<>();
-        Element tt = doc.getElementById("MainContent_GridTimetable");
-        List<String> slots = new ArrayList<>();
-
-        if (tt != null) {
-            Elements rows = tt.select("tr");
-            if (!rows.isEmpty()) {
-
-                Elements ths = rows.get(0).select("th");
-                for (int i = 1; i < ths.size(); i++) {
-                    slots.add(ths.get(i).text().trim());
-                }
-
-                for (int r = 1; r < rows.size(); r++) {
-                    Elements tds = rows.get(r).select("td");
-                    if (tds.size() < 2) continue;
-
-                    String day = normalizeDayName(tds.get(0).text().trim());
-                    List<TimetableItem> dayItems = new ArrayList<>();
-
-                    for (int c = 1; c < tds.size() && (c - 1) < slots.size(); c++) {
-                        String subjectName = tds.get(c).text().trim();
-                        if (subjectName.isEmpty()
-                                || "-".equals(subjectName)
-                                || "Break".equalsIgnoreCase(subjectName)) continue;
-
-                        String time = slots.get(c - 1);
-
-                        String code = nameToCode.get(key(subjectName));
-                        if (code == null || code.trim().isEmpty()) {
-                            code = subjectName;
-                        }
-
-                        String status = computeStatusIfToday(day, time);
-                        dayItems.add(new TimetableItem(code, subjectName, time, status));
-                    }
+        return fetchStudentDashboardData(fetchAttendancePage());
+    }
 
-                    timetableByDay.put(day, dayItems);
-                }
-            }
-        }
+    public StudentDashboardData fetchStudentDashboardData(AttendancePageSnapshot page) throws Exception {
+        return fetchStudentDashboardData(page, null);
+    }
 
-        double overall = parseOverallAttendance(doc);
+    /** Same as above, but syncs results incrementally against {@code resultsState} when given. */
+    public StudentDashboardData fetchStudentDashboardData(AttendancePageSnapshot page,
+                                                         ResultsSyncState resultsState) throws Exception {
+        StudentProfile profile = page.getProfile();
+        Map<String, List<TimetableItem>> timetableByDay = page.getWeekTimetable();
+        double overall = page.getOverallAttendancePercent();
 
         // ✅ Fetch results and compute CGPA
-        List<SemesterResult> results = fetchAllSemesterResultsRegular();
+        List<SemesterResult> results = resultsState == null
+                ? fetchAllSemesterResultsRegular()
+                : syncSemesterResults(ResultType.REGULAR, resultsState);
         double cgpa = computeCgpa(results);
 
-
-        return new StudentDashboardData(studentName, branch, overall, cgpa, timetableByDay);
-    }
-
-    private double parseOverallAttendance(Document doc) {
-        try {
-            Element table = doc.getElementById("MainContent_GridView4");
-            if (table == null) return -1;
-
-            Elements rows = table.select("tr");
-            if (rows.size() < 2) return -1;
-
-            Elements header = rows.get(0).select("th");
-
-            int facultyIdx = -1;
-            int presentIdx = -1;
-            int absentIdx  = -1;
-            int totalIdx   = -1;
-
-            for (int i = 0; i < header.size(); i++) {
-                String h = header.get(i).text().trim().toLowerCase(Locale.US);
-                if (h.contains("faculty sessions")) facultyIdx = i;
-                if (h.equals("present")) presentIdx = i;
-                if (h.equals("absent")) absentIdx = i;
-                if (h.contains("total sessions")) totalIdx = i;
-            }
-
-            if (totalIdx == -1) totalIdx = 4;
-            if (facultyIdx == -1) facultyIdx = 5;
-            if (presentIdx == -1) presentIdx = 6;
-            if (absentIdx == -1) absentIdx = 7;
-
-            int sumPresent = 0;
-            int sumDenom = 0;
-
-            for (int r = 1; r < rows.size(); r++) {
-                Elements tds = rows.get(r).select("td");
-                if (tds.size() <= Math.max(Math.max(totalIdx, facultyIdx), presentIdx)) continue;
-
-                int present = safeInt(tds.get(presentIdx).text());
-                int faculty = safeInt(tds.get(facultyIdx).text());
-                int absent  = (tds.size() > absentIdx) ? safeInt(tds.get(absentIdx).text()) : 0;
-                int total   = safeInt(tds.get(totalIdx).text());
-
-                int denom = faculty;
-                if (denom <= 0) {
-                    int pa = present + absent;
-                    if (pa > 0) denom = pa;
-                }
-                if (denom <= 0) denom = total;
-
-                if (denom > 0) {
-                    sumPresent += present;
-                    sumDenom += denom;
-                }
-            }
-
-            if (sumDenom == 0) return -1;
-            return (sumPresent * 100.0) / sumDenom;
-
-        } catch (Exception e) {
-            return -1;
-        }
+        // results ride along so callers caching them need not sync them a second time
+        return new StudentDashboardData(profile.studentName, profile.branch, overall, cgpa, timetableByDay, results);
     }
 
     // ==================== ✅ SEMESTER RESULTS (REAL) ====================
@@ -475,11 +755,11 @@ public class AmsClient {
 
     /** Returns YoPList values like "Nov.2025" */
     public List<String> fetchAvailableResultPeriods() throws IOException {
-        ensureSession();
-        String html = get(SEMESTER_MARK_URL);
-        Document doc = Jsoup.parse(html);
+        return parseResultPeriods(getSemesterMarkState().page);
+    }
 
-        Element sel = doc.selectFirst("#MainContent_YoPList");
+    private static List<String> parseResultPeriods(HtmlExtractor.Result page) {
+        Element sel = page.get("MainContent_YoPList");
         if (sel == null) return new ArrayList<>();
 
         List<String> out = new ArrayList<>();
@@ -495,43 +775,91 @@ public class AmsClient {
 
     /** Fetches results for ONE period (e.g., Nov.2025) and ONE type (Regular/Arrear/Revaluation). */
     public List<SemesterResult> fetchSemesterResultsForPeriod(String periodValue, ResultType type) throws IOException {
-        ensureSession();
-
         // Step-0: GET page
         PageState s0 = getSemesterMarkState();
 
-        // Step-1: POST dropdown selection (YoPList postback)
-        PageState s1 = postSemesterMark(
-                s0,
-                "ctl00$MainContent$YoPList",
-                periodValue,
-                null
-        );
-
-        // Step-2: POST radio selection (Regular/Arrear/Revaluation)
-        PageState s2 = postSemesterMark(
-                s1,
-                type.eventTarget,
-                periodValue,
-                type.groupValue
-        );
+        // Step-1 + Step-2: YoPList postback, then radio postback
+        PageState s2 = postSemesterMarkPeriod(s0, periodValue, type);
 
         // Parse final page for GridView1
-        return parseSemesterResultsHtml(s2.html);
+        return parseSemesterResults(s2.page);
     }
 
-    /** Fetches ALL periods and merges semesters (auto month/year change) */
+    /**
+     * Fetches ALL periods and merges semesters (auto month/year change).
+     * One GET, then the state of each period's final response is the starting state of the next
+     * period's postback (2N+1 requests).
+     */
     public List<SemesterResult> fetchAllSemesterResults(ResultType type) throws IOException {
-        ensureSession();
+        PageState state = getSemesterMarkState();
+        List<String> periods = parseResultPeriods(state.page);
+        if (periods.isEmpty()) return new ArrayList<>();
+
+        return mergeSemesters(crawlResultPeriods(state, periods, type));
+    }
+
+    /**
+     * Incremental variant of {@link #fetchAllSemesterResults(ResultType)}: only posts back for
+     * periods missing from {@code syncState} plus the newest period while it may still be revised.
+     * In the common case this is a single GET. {@code syncState} is updated in place; persist it.
+     */
+    public List<SemesterResult> syncSemesterResults(ResultType type, ResultsSyncState syncState) throws IOException {
+        if (syncState == null) syncState = new ResultsSyncState();
+        if (!type.name().equals(syncState.resultType)) {
+            syncState.resultType = type.name();
+            syncState.periods.clear();
+        }
+
+        PageState state = getSemesterMarkState();
+        List<String> periods = parseResultPeriods(state.page);
 
-        List<String> periods = fetchAvailableResultPeriods();
-        if (periods == null || periods.isEmpty()) return new ArrayList<>();
+        List<String> toFetch = syncState.periodsToFetch(periods, System.currentTimeMillis());
+        if (!toFetch.isEmpty()) {
+            List<List<SemesterResult>> fetched = crawlResultPeriods(state, toFetch, type);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < toFetch.size(); i++) {
+                syncState.record(toFetch.get(i), fetched.get(i), now);
+            }
+        }
 
+        return mergeSemesters(syncState.retainAndCollect(periods));
+    }
+
+    /**
+     * Chained YoPList/radio postbacks for {@code periods}, starting from {@code start}.
+     * GridView1 of a period is parsed on a {@link Pipeline} stage while the next period's
+     * postbacks are in flight. Results are returned in {@code periods} order.
+     */
+    private List<List<SemesterResult>> crawlResultPeriods(PageState start, List<String> periods, ResultType type) throws IOException {
+        long startMs = System.currentTimeMillis();
+        int startRequests = requestCount.get();
+        long startBytes = bytesReceived.get();
+
+        List<List<SemesterResult>> perPeriod = new ArrayList<>(Collections.nCopies(periods.size(), null));
+        Pipeline pipeline = new Pipeline("ams-results", PIPELINE_CAPACITY);
+        try {
+            PageState state = start;
+            for (int i = 0; i < periods.size(); i++) {
+                int index = i;
+                state = postSemesterMarkPeriod(state, periods.get(i), type);
+                pipeline.submit(state.page, this::parseSemesterResults, results -> perPeriod.set(index, results));
+            }
+
+            Pipeline.Timings timings = pipeline.finish(); // drains the stages: perPeriod is complete
+            if (timings.parse.failed > 0) throw new IOException("Failed to parse results of " + timings.parse.failed + " period(s)");
+            lastResultsCrawl = statsSince(startRequests, startBytes, startMs, periods.size(), timings);
+            return perPeriod;
+        } finally {
+            pipeline.abort();
+        }
+    }
+
+    /** Keeps one entry per semester number, sorted by semester. */
+    private List<SemesterResult> mergeSemesters(List<List<SemesterResult>> perPeriod) {
         // Keep latest found per semester (if duplicates happen)
         Map<Integer, SemesterResult> semMap = new LinkedHashMap<>();
 
-        for (String p : periods) {
-            List<SemesterResult> one = fetchSemesterResultsForPeriod(p, type);
+        for (List<SemesterResult> one : perPeriod) {
             for (SemesterResult sr : one) {
                 int semesterNo = extractSemesterNumber(sr.semesterName);
                 if (semesterNo <= 0) continue;
@@ -557,23 +885,62 @@ public class AmsClient {
         return fetchAllSemesterResults(ResultType.REGULAR);
     }
 
+    /**
+     * Partial (delta) postbacks for SemesterMark.aspx, on by default. Turning it off restores
+     * full-page postbacks, e.g. to compare {@link #getLastResultsCrawlStats()} bytes per period.
+     */
+    public void setAsyncResultsPostBack(boolean enabled) {
+        asyncResultsPostBack = enabled;
+    }
+
+    /** Stats of the most recent results postback crawl (initial GET excluded), or null. */
+    public CrawlStats getLastResultsCrawlStats() {
+        return lastResultsCrawl;
+    }
+
     // ---------- Internals for SemesterMark.aspx ----------
 
+    /** Element ids read from SemesterMark.aspx; the rest of the page is skipped while streaming. */
+    private static final Set<String> SEMESTER_MARK_IDS = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList("MainContent_YoPList", "MainContent_GridView1")));
+
     private static class PageState {
         final Map<String, String> hidden;
-        final String html;
+        final HtmlExtractor.Result page;
+        final AsyncPostBack async; // null => full-page postbacks only
+        final String asyncPanel;   // UpdatePanel wrapping YoPList, resolved once on the GET
 
-        PageState(Map<String, String> hidden, String html) {
+        PageState(Map<String, String> hidden, HtmlExtractor.Result page, AsyncPostBack async, String asyncPanel) {
             this.hidden = hidden;
-            this.html = html;
+            this.page = page;
+            this.async = async;
+            this.asyncPanel = asyncPanel;
         }
     }
 
     private PageState getSemesterMarkState() throws IOException {
-        String html = get(SEMESTER_MARK_URL);
-        Document doc = Jsoup.parse(html);
-        Map<String, String> hidden = extractAspNetHidden(doc);
-        return new PageState(hidden, html);
+        HtmlExtractor.Result page = getExtract(SEMESTER_MARK_URL, SEMESTER_MARK_IDS);
+        session.check(page);
+        AsyncPostBack async = AsyncPostBack.parse(page.pageRequestManagerInit);
+        String panel = async == null ? null : async.panelFor(page.get("MainContent_YoPList"));
+        return new PageState(page.hiddenFields, page, async, panel);
+    }
+
+    /** YoPList postback for {@code periodValue} followed by the result-type radio postback. */
+    private PageState postSemesterMarkPeriod(PageState prev, String periodValue, ResultType type) throws IOException {
+        PageState s1 = postSemesterMark(
+                prev,
+                "ctl00$MainContent$YoPList",
+                periodValue,
+                null
+        );
+
+        return postSemesterMark(
+                s1,
+                type.eventTarget,
+                periodValue,
+                type.groupValue
+        );
     }
 
     private PageState postSemesterMark(PageState prev, String eventTarget, String periodValue, String group1Value) throws IOException {
@@ -607,47 +974,62 @@ public class AmsClient {
             }
         }
 
-        Request post = new Request.Builder()
+        boolean async = asyncResultsPostBack && prev != null && prev.async != null;
+        if (async) {
+            // Partial postback: the server answers with just the UpdatePanel HTML + new hidden fields
+            fb.add(prev.async.scriptManagerId, prev.asyncPanel + "|" + (eventTarget == null ? "" : eventTarget));
+            fb.add("__ASYNCPOST", "true");
+        }
+
+        Request.Builder rb = new Request.Builder()
                 .url(SEMESTER_MARK_URL)
                 .post(fb.build())
                 .header("Referer", SEMESTER_MARK_URL)
                 .header("Origin", BASE)
-                .header("User-Agent", "Mozilla/5.0")
-                .build();
+                .header("User-Agent", "Mozilla/5.0");
+        if (async) {
+            rb.header("X-Requested-With", "XMLHttpRequest")
+                    .header("X-MicrosoftAjax", "Delta=true");
+        }
 
-        String html;
-        try (Response res = client.newCall(post).execute()) {
+        try (Response res = execute(rb.build())) {
             if (!res.isSuccessful() || res.body() == null) {
                 throw new IOException("SemesterMark POST failed: " + res.code());
             }
-            html = res.body().string();
-        }
+            if (!async) {
+                HtmlExtractor.Result page = HtmlExtractor.extract(res.body().charStream(), SEMESTER_MARK_URL, SEMESTER_MARK_IDS);
+                session.check(page);
+                return prev == null
+                        ? new PageState(page.hiddenFields, page, null, null)
+                        : new PageState(page.hiddenFields, page, prev.async, prev.asyncPanel);
+            }
 
-        Document doc = Jsoup.parse(html);
-        Map<String, String> hidden = extractAspNetHidden(doc);
-        return new PageState(hidden, html);
-    }
+            String body = res.body().string();
+            DeltaResponse delta = DeltaResponse.parse(body);
+            session.check(delta, body);
 
-    private static Map<String, String> extractAspNetHidden(Document doc) {
-        Map<String, String> map = new HashMap<>();
-        if (doc == null) return map;
-        for (Element input : doc.select("input[type=hidden][name]")) {
-            String name = input.attr("name");
-            String value = input.attr("value");
-            if (name != null && !name.trim().isEmpty()) {
-                map.put(name, value == null ? "" : value);
+            StringBuilder panels = new StringBuilder();
+            for (String clientId : prev.async.panelClientIds) {
+                String html = delta.updatePanel(clientId);
+                if (html != null) panels.append(html);
+            }
+            if (!delta.isComplete() || panels.length() == 0) {
+                // not a usable delta (e.g. server ignored __ASYNCPOST): redo as a full postback
+                // and stay on full postbacks for the rest of this chain
+                return postSemesterMark(new PageState(prev.hidden, prev.page, null, null),
+                        eventTarget, periodValue, group1Value);
             }
+
+            HtmlExtractor.Result page = HtmlExtractor.extract(panels.toString(), SEMESTER_MARK_IDS);
+            return new PageState(delta.mergeHiddenFields(prev.hidden), page, prev.async, prev.asyncPanel);
         }
-        return map;
     }
 
-    private List<SemesterResult> parseSemesterResultsHtml(String html) {
+    private List<SemesterResult> parseSemesterResults(HtmlExtractor.Result page) {
         List<SemesterResult> out = new ArrayList<>();
-        if (html == null || html.trim().isEmpty()) return out;
-
-        Document doc = Jsoup.parse(html);
+        if (page == null) return out;
 
-        Element table = doc.getElementById("MainContent_GridView1");
+        Element table = page.get("MainContent_GridView1");
         if (table == null) return out;
 
         Elements rows = table.select("tr");
@@ -781,7 +1163,7 @@ public class AmsClient {
 
     // -------------------- Status logic --------------------
 
-    private String computeStatusIfToday(String day, String timeRange) {
+    static String computeStatusIfToday(String day, String timeRange) {
         if (day == null || timeRange == null) return "Upcoming";
 
         String today = new SimpleDateFormat("EEEE", Locale.US).format(new Date());
@@ -803,7 +1185,7 @@ public class AmsClient {
         return "Completed";
     }
 
-    private int[] parseSlotMinutes(String slot) {
+    private static int[] parseSlotMinutes(String slot) {
         try {
             String s = slot.trim().replace(" ", "");
 
@@ -830,7 +1212,7 @@ public class AmsClient {
         }
     }
 
-    private int hmToMinutes(String hDotM, String ampm) {
+    private static int hmToMinutes(String hDotM, String ampm) {
         String[] parts = hDotM.split("\\.");
         int hour = safeInt(parts[0]);
         int min = 0;
@@ -850,45 +1232,20 @@ public class AmsClient {
         return hour * 60 + min;
     }
 
-    // -------------------- AJAX helpers --------------------
-
-    private static String extractUpdatePanelHtml(String delta, String panelId) {
-        String[] parts = delta.split("\\|");
-        for (int i = 0; i < parts.length - 2; i++) {
-            if ("updatePanel".equals(parts[i]) && panelId.equals(parts[i + 1])) {
-                return parts[i + 2];
-            }
-        }
-        return null;
-    }
-
-    private static String getFirstOrSelectedOptionValue(Document doc, String selectId) {
-        Element sel = doc.getElementById(selectId);
-        if (sel == null) return null;
-
-        Element selected = sel.selectFirst("option[selected]");
-        if (selected != null) return selected.attr("value");
-
-        Element first = sel.selectFirst("option");
-        if (first != null) return first.attr("value");
-
-        return null;
-    }
-
     // -------------------- Small utils --------------------
 
-    private String formatDate(String dateStr) {
+    private static String formatDate(String dateStr) {
         if (dateStr == null || dateStr.trim().isEmpty()) return "";
         if (dateStr.contains(" ")) return dateStr.split(" ")[0];
         return dateStr;
     }
 
-    private static String key(String s) {
+    static String key(String s) {
         if (s == null) return "";
         return s.toLowerCase(Locale.US).replaceAll("[^a-z0-9]+", "");
     }
 
-    private static int safeInt(String s) {
+    static int safeInt(String s) {
         try {
             if (s == null) return 0;
             String digits = s.replaceAll("[^0-9]", "");
@@ -899,7 +1256,7 @@ public class AmsClient {
         }
     }
 
-    private static String normalizeDayName(String raw) {
+    static String normalizeDayName(String raw) {
         if (raw == null) return "";
         String d = raw.trim();
 
@@ -914,8 +1271,237 @@ public class AmsClient {
         return d;
     }
 
+    // -------------------- ASYNC --------------------
+    //
+    // Same fetches without pinning a thread per request: the call is queued with Call.enqueue, the
+    // response is streamed through HtmlExtractor / DeltaResponse on OkHttp's dispatcher thread (it
+    // stops early, so that part is network-bound), and the model is built on PARSE_POOL.
+    // Cancelling the returned CallFuture cancels the OkHttp call.
+
+    private static final int PARSE_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+    private static final ExecutorService PARSE_POOL = newParsePool();
+
+    private static ExecutorService newParsePool() {
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(PARSE_THREADS, PARSE_THREADS,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "ams-parse-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true); // no idle threads between fetches
+        return pool;
+    }
+
+    /** Reads the response while the call is still open; runs on OkHttp's dispatcher thread. */
+    private interface ResponseReader<R> {
+        R read(Response res) throws IOException;
+    }
+
+    /** Builds the model from what the reader produced; runs on {@link #PARSE_POOL}. */
+    private interface ModelParser<R, T> {
+        T parse(R read) throws Exception;
+    }
+
+    public CallFuture<AttendancePageSnapshot> fetchAttendancePageAsync() {
+        return enqueue(getRequest(ATTENDANCE_URL), this::readAttendancePage, AttendancePageSnapshot::new);
+    }
+
+    public CallFuture<List<SubjectAttendanceItem>> fetchAttendanceDataAsync() {
+        return enqueue(getRequest(ATTENDANCE_URL), this::readAttendancePage, page -> new AttendancePageSnapshot(page).getAttendanceItems());
+    }
+
+    public CallFuture<StudentProfile> fetchStudentProfileAsync() {
+        return enqueue(getRequest(ATTENDANCE_URL), this::readAttendancePage, page -> new AttendancePageSnapshot(page).getProfile());
+    }
+
+    private HtmlExtractor.Result readAttendancePage(Response res) throws IOException {
+        HtmlExtractor.Result page = readExtract(res, ATTENDANCE_URL, AttendancePageSnapshot.ELEMENT_IDS);
+        session.check(page);
+        return page;
+    }
+
+    /** Async counterpart of {@link #fetchSubjectFullAttendance(AttendancePageSnapshot, String, String)}. */
+    public CallFuture<List<PeriodAttendanceItem>> fetchSubjectFullAttendanceAsync(AttendancePageSnapshot page,
+                                                                                  String subjectCode,
+                                                                                  String subjectName) {
+        String exactCourseValue = page.findCourseValue(subjectCode);
+        if (exactCourseValue == null) {
+            CallFuture<List<PeriodAttendanceItem>> none = new CallFuture<>();
+            none.complete(new ArrayList<>());
+            return none;
+        }
+
+        Request post = attendanceQuery(page, page.getHiddenFields(), AttendanceMode.COURSEWISE,
+                exactCourseValue, page.getSelectedYear(), page.getSelectedMonth());
+        return enqueue(post, this::readDelta, delta -> parseSubjectAttendanceDelta(delta, subjectName));
+    }
+
+    private <R, T> CallFuture<T> enqueue(Request req, ResponseReader<R> reader, ModelParser<R, T> parser) {
+        CallFuture<T> future = new CallFuture<>();
+        Call call = client.newCall(req);
+        future.attach(call);
+
+        // started from a scheduler task: closing the screen cancels the future (and the call)
+        CancellationToken.Registration reg = CancellationToken.current().onCancel(() -> future.cancel(true));
+        future.whenComplete((v, e) -> reg.close());
+        if (future.isCancelled()) return future;
+
+        requestCount.incrementAndGet();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call c, Response response) {
+                R read;
+                try (Response res = checkRedirect(req, response)) {
+                    read = reader.read(res);
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                if (future.isDone()) return; // cancelled while reading
+
+                try {
+                    PARSE_POOL.execute(() -> {
+                        if (future.isDone()) return;
+                        try {
+                            future.complete(parser.parse(read));
+                        } catch (Exception e) {
+                            future.completeExceptionally(e);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
     // -------------------- HTTP --------------------
 
+    /**
+     * Opt-in hedging of the idempotent page loads (Attendance.aspx / SemesterMark.aspx GETs), for
+     * result-publication days when the server's tail latency explodes. Postbacks, the login page
+     * and the captcha are never hedged.
+     *
+     * Off by default. Both attempts carry the same ASP.NET session cookie and ASP.NET serves one
+     * session's requests one at a time, so against AMS the duplicate queues behind the slow original
+     * and cannot finish first; it only adds load when the server is already struggling. Only worth
+     * enabling for a deployment whose pages do not take the session lock.
+     */
+    public void setHedgedGets(boolean enabled) {
+        hedger = enabled ? (hedger != null ? hedger : new RequestHedger()) : null;
+    }
+
+    /** Hedge counters and current delay, null while hedging is off. */
+    public RequestHedger getHedger() {
+        return hedger;
+    }
+
+    /** Number of HTTP requests this client has issued (used for crawl stats). */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /** Response body bytes read off the wire (before gzip decoding) by this client. */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /** Blocking call, cancelled through the running task's {@link CancellationToken} (screen closed). */
+    private Response execute(Request req) throws IOException {
+        return execute(req, false);
+    }
+
+    /** {@code hedge}: idempotent page load that may be hedged when {@link #setHedgedGets} is on. */
+    private Response execute(Request req, boolean hedge) throws IOException {
+        CancellationToken token = CancellationToken.current();
+        token.throwIfCancelled();
+        requestCount.incrementAndGet();
+
+        try {
+            RequestHedger h = hedger;
+            if (hedge && h != null && "GET".equals(req.method())) {
+                return checkRedirect(req, h.execute(client, req, token));
+            }
+
+            Call call = client.newCall(req);
+            CancellationToken.Registration reg = token.onCancel(call::cancel);
+            Response res;
+            try {
+                res = call.execute();
+            } catch (IOException e) {
+                reg.close();
+                throw e;
+            }
+            // stays registered while the caller reads the body
+            return checkRedirect(req, unregisterOnClose(res, reg));
+        } catch (IOException e) {
+            if (token.isCancelled() && !(e instanceof CancellationToken.CancelledException)) {
+                throw new CancellationToken.CancelledException();
+            }
+            throw e;
+        }
+    }
+
+    private Response checkRedirect(Request req, Response res) throws IOException {
+        // Forms auth bounces expired sessions to index.aspx; OkHttp has already followed the redirect
+        if (SessionTracker.redirectedToLogin(req.url(), res.request().url())) {
+            res.close();
+            throw session.expired();
+        }
+        return res;
+    }
+
+    /**
+     * {@code res} whose body closes {@code reg} when it is closed, so a cancel action registered
+     * for the call is dropped once the caller is done reading rather than when the task ends.
+     */
+    static Response unregisterOnClose(Response res, CancellationToken.Registration reg) {
+        ResponseBody body = res.body();
+        if (body == null) {
+            reg.close();
+            return res;
+        }
+
+        BufferedSource released = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    reg.close();
+                }
+            }
+        });
+        return res.newBuilder()
+                .body(ResponseBody.create(released, body.contentType(), body.contentLength()))
+                .build();
+    }
+
+    private Response countResponseBytes(Interceptor.Chain chain) throws IOException {
+        Response res = chain.proceed(chain.request());
+        ResponseBody body = res.body();
+        if (body == null) return res;
+
+        BufferedSource counted = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long n = super.read(sink, byteCount);
+                if (n > 0) bytesReceived.addAndGet(n);
+                return n;
+            }
+        });
+        return res.newBuilder()
+                .body(ResponseBody.create(counted, body.contentType(), body.contentLength()))
+                .build();
+    }
+
     private String get(String url) throws IOException {
         Request req = new Request.Builder()
                 .url(url)
@@ -923,7 +1509,7 @@ public class AmsClient {
                 .header("User-Agent", "Mozilla/5.0")
                 .build();
 
-        try (Response res = client.newCall(req).execute()) {
+        try (Response res = execute(req)) {
             if (!res.isSuccessful() || res.body() == null) {
                 throw new IOException("HTTP " + res.code() + " for " + url);
             }
@@ -931,6 +1517,28 @@ public class AmsClient {
         }
     }
 
+    /** GET streamed through {@link HtmlExtractor}; reading stops once {@code ids} are found. */
+    private HtmlExtractor.Result getExtract(String url, Set<String> ids) throws IOException {
+        try (Response res = execute(getRequest(url), true)) {
+            return readExtract(res, url, ids);
+        }
+    }
+
+    private static HtmlExtractor.Result readExtract(Response res, String url, Set<String> ids) throws IOException {
+        if (!res.isSuccessful() || res.body() == null) {
+            throw new IOException("HTTP " + res.code() + " for " + url);
+        }
+        return HtmlExtractor.extract(res.body().charStream(), url, ids);
+    }
+
+    private static Request getRequest(String url) {
+        return new Request.Builder()
+                .url(url)
+                .get()
+                .header("User-Agent", "Mozilla/5.0")
+                .build();
+    }
+
     private byte[] getBytes(String url) throws IOException {
         Request req = new Request.Builder()
                 .url(url)
@@ -938,7 +1546,7 @@ public class AmsClient {
                 .header("User-Agent", "Mozilla/5.0")
                 .build();
 
-        try (Response res = client.newCall(req).execute()) {
+        try (Response res = execute(req)) {
             if (!res.isSuccessful() || res.body() == null) {
                 throw new IOException("HTTP " + res.code() + " for " + url);
             }
@@ -946,10 +1554,6 @@ public class AmsClient {
         }
     }
 
-    private static String textOrEmpty(Element e) {
-        return e == null ? "" : e.text().trim();
-    }
-
     public static String getTodayWeekdayNameStatic() {
         return new SimpleDateFormat("EEEE", Locale.US).format(new Date());
     }
@@ -0,0 +1,243 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Model.PeriodAttendanceItem;
+import com.siva.homeofveltech.Model.SemesterResult;
+import com.siva.homeofveltech.Model.StudentDashboardData;
+import com.siva.homeofveltech.Model.SubjectAttendanceItem;
+import com.siva.homeofveltech.Utils.CancellationToken;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide front for {@link AmsClient} that coalesces identical in-flight fetches (single-flight).
+ * The first caller for a key runs the fetch on its own thread; callers arriving while it is running
+ * block on the same result instead of sending the same requests again. Nothing is cached once the
+ * fetch completes.
+ *
+ * Sync-state arguments ({@link ResultsSyncState}, {@link AttendanceSyncState}) are brought up to
+ * date for late callers too, by copying the state the running fetch produced. If the screen running
+ * a fetch is closed mid-way, callers still waiting on it run the fetch again themselves.
+ */
+public final class AmsRepository {
+
+    private static volatile AmsRepository instance;
+
+    public static AmsRepository getInstance() {
+        if (instance == null) {
+            synchronized (AmsRepository.class) {
+                if (instance == null) {
+                    // hedging stays off: see AmsClient#setHedgedGets
+                    instance = new AmsRepository(new AmsClient());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private final AmsClient client;
+    private final ConcurrentHashMap<String, Flight<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger coalesced = new AtomicInteger();
+    private final ConcurrentHashMap<String, AtomicInteger> coalescedByKind = new ConcurrentHashMap<>();
+
+    AmsRepository(AmsClient client) {
+        this.client = client;
+    }
+
+    /** Shared client, for calls that are not coalesced (e.g. crawls with per-caller listeners). */
+    public AmsClient getClient() {
+        return client;
+    }
+
+    // -------------------- Coalesced fetches --------------------
+
+    public AttendancePageSnapshot fetchAttendancePage() throws IOException {
+        return singleFlight("attendancePage", client::fetchAttendancePage);
+    }
+
+    public List<SubjectAttendanceItem> fetchAttendanceData() throws IOException {
+        return fetchAttendancePage().getAttendanceItems();
+    }
+
+    public List<PeriodAttendanceItem> fetchSubjectFullAttendance(String subjectCode, String subjectName) throws IOException {
+        return singleFlight("subjectFullAttendance:" + subjectCode,
+                () -> client.fetchSubjectFullAttendance(fetchAttendancePage(), subjectCode, subjectName));
+    }
+
+    /**
+     * Coalesced per page load: callers holding the same snapshot (e.g. both from a coalesced
+     * {@link #fetchAttendancePage}) share one fetch, a caller with another snapshot gets its own.
+     */
+    public StudentDashboardData fetchStudentDashboardData(AttendancePageSnapshot page,
+                                                          ResultsSyncState resultsState) throws IOException {
+        Synced<StudentDashboardData, ResultsSyncState> r = singleFlight("dashboard:" + page.getLoadId(),
+                () -> new Synced<>(client.fetchStudentDashboardData(page, resultsState), resultsState));
+        if (r.state != resultsState) resultsState.copyFrom(r.state);
+        return r.value;
+    }
+
+    public List<SemesterResult> syncSemesterResults(AmsClient.ResultType type,
+                                                    ResultsSyncState state) throws IOException {
+        Synced<List<SemesterResult>, ResultsSyncState> r = singleFlight("results:" + type,
+                () -> new Synced<>(client.syncSemesterResults(type, state), state));
+        if (r.state != state) state.copyFrom(r.state);
+        return r.value;
+    }
+
+    /**
+     * Coalesced {@link AmsClient#syncAttendanceHistory}. {@code listener} runs as subjects load for
+     * the caller that performed the sync; late callers get the same subjects replayed on their own
+     * thread once it is done, along with the resulting state and the returned stats. {@code page}
+     * is only the crawl's starting point, so late callers share the sync whatever snapshot they hold.
+     */
+    public AmsClient.CrawlStats syncAttendanceHistory(AttendancePageSnapshot page, AttendanceSyncState state,
+                                                      AmsClient.SubjectFullAttendanceListener listener) throws IOException {
+        Synced<SubjectRecorder, AttendanceSyncState> r = singleFlight("attendanceHistory", () -> {
+            SubjectRecorder recorder = new SubjectRecorder(listener);
+            recorder.stats = client.syncAttendanceHistory(page, state, recorder);
+            return new Synced<>(recorder, state);
+        });
+        if (r.state != state) {
+            state.copyFrom(r.state);
+            if (listener != null) r.value.replayTo(listener);
+        }
+        return r.value.stats;
+    }
+
+    // -------------------- Counters --------------------
+
+    /** Fetches actually executed. */
+    public int getStartedCount() {
+        return started.get();
+    }
+
+    /** Calls served by attaching to an already running fetch, i.e. duplicate fetches saved. */
+    public int getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /** Saved fetches per kind ("dashboard", "attendancePage", ...). */
+    public Map<String, Integer> getCoalescedByKind() {
+        Map<String, Integer> out = new TreeMap<>();
+        for (Map.Entry<String, AtomicInteger> e : coalescedByKind.entrySet()) {
+            out.put(e.getKey(), e.getValue().get());
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return "started=" + started.get() + ", coalesced=" + coalesced.get() + " " + getCoalescedByKind();
+    }
+
+    // -------------------- Single-flight --------------------
+
+    private static final class Synced<T, S> {
+        final T value;
+        final S state;
+
+        Synced(T value, S state) {
+            this.value = value;
+            this.state = state;
+        }
+    }
+
+    private static final class LoadedSubject {
+        final String code;
+        final String name;
+        final List<PeriodAttendanceItem> periods;
+
+        LoadedSubject(String code, String name, List<PeriodAttendanceItem> periods) {
+            this.code = code;
+            this.name = name;
+            this.periods = periods;
+        }
+    }
+
+    /** Forwards loaded subjects to the syncing caller's listener and keeps them for late callers. */
+    private static final class SubjectRecorder implements AmsClient.SubjectFullAttendanceListener {
+        private final AmsClient.SubjectFullAttendanceListener forward;
+        private final List<LoadedSubject> loaded = new ArrayList<>(); // guarded by this
+        AmsClient.CrawlStats stats;
+
+        SubjectRecorder(AmsClient.SubjectFullAttendanceListener forward) {
+            this.forward = forward;
+        }
+
+        @Override
+        public void onSubjectLoaded(String subjectCode, String subjectName, List<PeriodAttendanceItem> periods) {
+            synchronized (this) {
+                loaded.add(new LoadedSubject(subjectCode, subjectName, periods));
+            }
+            if (forward != null) forward.onSubjectLoaded(subjectCode, subjectName, periods);
+        }
+
+        void replayTo(AmsClient.SubjectFullAttendanceListener listener) {
+            List<LoadedSubject> copy;
+            synchronized (this) {
+                copy = new ArrayList<>(loaded);
+            }
+            for (LoadedSubject s : copy) listener.onSubjectLoaded(s.code, s.name, s.periods);
+        }
+    }
+
+    /** One in-flight fetch and the token of the caller running it. */
+    private static final class Flight<T> {
+        final FutureTask<T> task;
+        final CancellationToken owner;
+
+        Flight(FutureTask<T> task, CancellationToken owner) {
+            this.task = task;
+            this.owner = owner;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(String key, Callable<T> loader) throws IOException {
+        while (true) {
+            Flight<T> flight = new Flight<>(new FutureTask<>(loader), CancellationToken.current());
+            Flight<T> running = (Flight<T>) inFlight.putIfAbsent(key, flight);
+
+            if (running == null) {
+                started.incrementAndGet();
+                try {
+                    flight.task.run();
+                } finally {
+                    inFlight.remove(key, flight);
+                }
+                running = flight;
+            } else {
+                coalesced.incrementAndGet();
+                String kind = key.contains(":") ? key.substring(0, key.indexOf(':')) : key;
+                coalescedByKind.computeIfAbsent(kind, k -> new AtomicInteger()).incrementAndGet();
+            }
+
+            try {
+                return running.task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + key);
+            } catch (ExecutionException e) {
+                // the screen that ran the fetch was closed; a caller that is still alive runs it itself
+                if (running != flight && running.owner.isCancelled() && !CancellationToken.current().isCancelled()) {
+                    continue;
+                }
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.siva.homeofveltech.Network;
+
+import org.jsoup.nodes.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ScriptManager / UpdatePanel ids of a page, read from its
+ * {@code Sys.WebForms.PageRequestManager._initialize('scriptManager', 'form', ['tPanelUniqueId','PanelClientId', ...], ...)}
+ * script. Needed to send partial (delta) postbacks instead of full-page ones.
+ */
+final class AsyncPostBack {
+
+    private static final Pattern INIT = Pattern.compile(
+            "_initialize\\(\\s*'([^']+)'\\s*,\\s*'[^']*'\\s*,\\s*\\[([^\\]]*)\\]");
+    private static final Pattern QUOTED = Pattern.compile("'([^']*)'");
+
+    final String scriptManagerId;
+    final List<String> panelUniqueIds = new ArrayList<>();
+    final List<String> panelClientIds = new ArrayList<>();
+
+    private AsyncPostBack(String scriptManagerId) {
+        this.scriptManagerId = scriptManagerId;
+    }
+
+    /** Null when the page has no ScriptManager or no UpdatePanels. */
+    static AsyncPostBack parse(String initScript) {
+        if (initScript == null) return null;
+        Matcher m = INIT.matcher(initScript);
+        if (!m.find()) return null;
+
+        AsyncPostBack info = new AsyncPostBack(m.group(1));
+        List<String> ids = new ArrayList<>();
+        Matcher q = QUOTED.matcher(m.group(2));
+        while (q.find()) ids.add(q.group(1));
+
+        // pairs of (flag-prefixed unique id, client id); flag is 't' or 'f' (ChildrenAsTriggers)
+        for (int i = 0; i + 1 < ids.size(); i += 2) {
+            String unique = ids.get(i);
+            if (unique.startsWith("t") || unique.startsWith("f")) unique = unique.substring(1);
+            info.panelUniqueIds.add(unique);
+            info.panelClientIds.add(ids.get(i + 1));
+        }
+        return info.panelUniqueIds.isEmpty() ? null : info;
+    }
+
+    /** Unique id of the UpdatePanel containing {@code control}, else the first panel on the page. */
+    String panelFor(Element control) {
+        for (Element p = control == null ? null : control.parent(); p != null; p = p.parent()) {
+            int idx = panelClientIds.indexOf(p.id());
+            if (idx >= 0) return panelUniqueIds.get(idx);
+        }
+        return panelUniqueIds.get(0);
+    }
+}
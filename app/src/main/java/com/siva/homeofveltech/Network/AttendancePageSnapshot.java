@@ -0,0 +1,316 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Model.StudentProfile;
+import com.siva.homeofveltech.Model.SubjectAttendanceItem;
+import com.siva.homeofveltech.Model.TimetableItem;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One streamed load of Attendance.aspx (already checked by {@link SessionTracker}).
+ * The same extract answers every parser (profile, attendance grid,
+ * course dropdown, timetable, hidden fields), so a screen only pays for a single page load.
+ */
+public class AttendancePageSnapshot {
+
+    /** Element ids the parsers below read; everything else is skipped while streaming. */
+    static final Set<String> ELEMENT_IDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "MainContent_lblName",
+            "MainContent_lblBranch",
+            "MainContent_GridView4",
+            "MainContent_GridView3",
+            "MainContent_GridTimetable",
+            "MainContent_Courselist",
+            "MainContent_DropDownList1",
+            "MainContent_DropDownList2",
+            "MainContent_TextBox1"
+    )));
+
+    private static final String[] MONTHS = {
+            "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    private static final AtomicLong NEXT_LOAD_ID = new AtomicLong();
+
+    private final HtmlExtractor.Result page;
+    private final long fetchedAt;
+    private final long loadId = NEXT_LOAD_ID.incrementAndGet();
+
+    AttendancePageSnapshot(HtmlExtractor.Result page) {
+        this.page = page;
+        this.fetchedAt = System.currentTimeMillis();
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /** Unique per page load in this process; tells two snapshots apart even if fetched the same ms. */
+    long getLoadId() {
+        return loadId;
+    }
+
+    // -------------------- HIDDEN FIELDS --------------------
+
+    /** __VIEWSTATE / __EVENTVALIDATION / __VIEWSTATEGENERATOR etc. */
+    public Map<String, String> getHiddenFields() {
+        return new LinkedHashMap<>(page.hiddenFields);
+    }
+
+    public String getTextBox1Value() {
+        Element textBox1 = page.get("MainContent_TextBox1");
+        return textBox1 == null ? null : textBox1.attr("value");
+    }
+
+    // -------------------- PROFILE --------------------
+
+    public StudentProfile getProfile() {
+        String studentName = textOrEmpty(page.get("MainContent_lblName"));
+        String branch = textOrEmpty(page.get("MainContent_lblBranch"));
+        return new StudentProfile(studentName, branch);
+    }
+
+    // -------------------- ATTENDANCE (SUMMARY GRID) --------------------
+
+    public List<SubjectAttendanceItem> getAttendanceItems() {
+        List<SubjectAttendanceItem> attendanceList = new ArrayList<>();
+        Elements rows = rowsOf(page.get("MainContent_GridView4"));
+
+        for (int i = 1; i < rows.size(); i++) {
+            Elements cols = rows.get(i).select("td");
+
+            if (cols.size() >= 13) {
+                attendanceList.add(new SubjectAttendanceItem(
+                        cols.get(2).text(),                    // subjectName
+                        cols.get(1).text(),                    // subjectCode
+                        cols.get(12).text(),                   // facultyName
+                        AmsClient.safeInt(cols.get(4).text()), // totalSessions
+                        AmsClient.safeInt(cols.get(6).text()), // attendedSessions
+                        AmsClient.safeInt(cols.get(5).text()), // conductedSessions
+                        AmsClient.safeInt(cols.get(7).text()), // absent
+                        AmsClient.safeInt(cols.get(8).text()), // presentPercentage
+                        AmsClient.safeInt(cols.get(9).text())  // overallPercentage
+                ));
+            }
+        }
+        return attendanceList;
+    }
+
+    /** Overall attendance % across all subjects, -1 if not found. */
+    public double getOverallAttendancePercent() {
+        try {
+            Element table = page.get("MainContent_GridView4");
+            if (table == null) return -1;
+
+            Elements rows = table.select("tr");
+            if (rows.size() < 2) return -1;
+
+            Elements header = rows.get(0).select("th");
+
+            int facultyIdx = -1;
+            int presentIdx = -1;
+            int absentIdx  = -1;
+            int totalIdx   = -1;
+
+            for (int i = 0; i < header.size(); i++) {
+                String h = header.get(i).text().trim().toLowerCase(Locale.US);
+                if (h.contains("faculty sessions")) facultyIdx = i;
+                if (h.equals("present")) presentIdx = i;
+                if (h.equals("absent")) absentIdx = i;
+                if (h.contains("total sessions")) totalIdx = i;
+            }
+
+            if (totalIdx == -1) totalIdx = 4;
+            if (facultyIdx == -1) facultyIdx = 5;
+            if (presentIdx == -1) presentIdx = 6;
+            if (absentIdx == -1) absentIdx = 7;
+
+            int sumPresent = 0;
+            int sumDenom = 0;
+
+            for (int r = 1; r < rows.size(); r++) {
+                Elements tds = rows.get(r).select("td");
+                if (tds.size() <= Math.max(Math.max(totalIdx, facultyIdx), presentIdx)) continue;
+
+                int present = AmsClient.safeInt(tds.get(presentIdx).text());
+                int faculty = AmsClient.safeInt(tds.get(facultyIdx).text());
+                int absent  = (tds.size() > absentIdx) ? AmsClient.safeInt(tds.get(absentIdx).text()) : 0;
+                int total   = AmsClient.safeInt(tds.get(totalIdx).text());
+
+                int denom = faculty;
+                if (denom <= 0) {
+                    int pa = present + absent;
+                    if (pa > 0) denom = pa;
+                }
+                if (denom <= 0) denom = total;
+
+                if (denom > 0) {
+                    sumPresent += present;
+                    sumDenom += denom;
+                }
+            }
+
+            if (sumDenom == 0) return -1;
+            return (sumPresent * 100.0) / sumDenom;
+
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    // -------------------- COURSE / YEAR / MONTH DROPDOWNS --------------------
+
+    /** All MainContent_Courselist option values, e.g. "CS101-Data Structures". */
+    public List<String> getCourseOptions() {
+        List<String> out = new ArrayList<>();
+        Element courseDropdown = page.get("MainContent_Courselist");
+        if (courseDropdown == null) return out;
+
+        for (Element option : courseDropdown.select("option")) {
+            String value = option.attr("value");
+            if (value == null || value.trim().isEmpty()) continue;
+            out.add(value);
+        }
+        return out;
+    }
+
+    /** Courselist value for a subject code, or null if the subject is not listed. */
+    public String findCourseValue(String subjectCode) {
+        if (subjectCode == null) return null;
+        for (String value : getCourseOptions()) {
+            if (value.startsWith(subjectCode + "-")) return value;
+        }
+        return null;
+    }
+
+    public String getSelectedYear() {
+        Element yearDropdown = page.get("MainContent_DropDownList2");
+        if (yearDropdown != null) {
+            for (Element option : yearDropdown.select("option")) {
+                String val = option.attr("value");
+                if (val != null && !val.equals("Select Year") && !val.equals("0") && !val.trim().isEmpty()) {
+                    return val;
+                }
+            }
+        }
+        return "2025";
+    }
+
+    public String getSelectedMonth() {
+        return getFirstOrSelectedOptionValue("MainContent_DropDownList1");
+    }
+
+    /** DropDownList1 value for a calendar month (1-12), matched by number or month name; null if not offered. */
+    public String findMonthValue(int month) {
+        Element sel = page.get("MainContent_DropDownList1");
+        if (sel == null || month < 1 || month > 12) return null;
+
+        String shortName = MONTHS[month - 1];
+        for (Element option : sel.select("option")) {
+            String value = option.attr("value").trim();
+            if (value.isEmpty()) continue;
+            if (AmsClient.safeInt(value) == month && value.replaceAll("[0-9]", "").isEmpty()) return value;
+
+            String label = (value + " " + option.text()).toLowerCase(Locale.US);
+            if (label.startsWith(shortName) || label.contains(" " + shortName)) return value;
+        }
+        return null;
+    }
+
+    private String getFirstOrSelectedOptionValue(String selectId) {
+        Element sel = page.get(selectId);
+        if (sel == null) return null;
+
+        Element selected = sel.selectFirst("option[selected]");
+        if (selected != null) return selected.attr("value");
+
+        Element first = sel.selectFirst("option");
+        if (first != null) return first.attr("value");
+
+        return null;
+    }
+
+    // -------------------- TIMETABLE --------------------
+
+    public Map<String, List<TimetableItem>> getWeekTimetable() {
+        Map<String, String> nameToCode = new HashMap<>();
+        Element courseTable = page.get("MainContent_GridView3");
+        if (courseTable != null) {
+            Elements rows = courseTable.select("tr");
+            for (int i = 1; i < rows.size(); i++) {
+                Elements tds = rows.get(i).select("td");
+                if (tds.size() >= 4) {
+                    String code = tds.get(2).text().trim();
+                    String name = tds.get(3).text().trim();
+                    if (!name.isEmpty() && !code.isEmpty()) {
+                        nameToCode.put(AmsClient.key(name), code);
+                    }
+                }
+            }
+        }
+
+        Map<String, List<TimetableItem>> timetableByDay = new HashMap<>();
+        Element tt = page.get("MainContent_GridTimetable");
+        List<String> slots = new ArrayList<>();
+
+        if (tt != null) {
+            Elements rows = tt.select("tr");
+            if (!rows.isEmpty()) {
+
+                Elements ths = rows.get(0).select("th");
+                for (int i = 1; i < ths.size(); i++) {
+                    slots.add(ths.get(i).text().trim());
+                }
+
+                for (int r = 1; r < rows.size(); r++) {
+                    Elements tds = rows.get(r).select("td");
+                    if (tds.size() < 2) continue;
+
+                    String day = AmsClient.normalizeDayName(tds.get(0).text().trim());
+                    List<TimetableItem> dayItems = new ArrayList<>();
+
+                    for (int c = 1; c < tds.size() && (c - 1) < slots.size(); c++) {
+                        String subjectName = tds.get(c).text().trim();
+                        if (subjectName.isEmpty()
+                                || "-".equals(subjectName)
+                                || "Break".equalsIgnoreCase(subjectName)) continue;
+
+                        String time = slots.get(c - 1);
+
+                        String code = nameToCode.get(AmsClient.key(subjectName));
+                        if (code == null || code.trim().isEmpty()) {
+                            code = subjectName;
+                        }
+
+                        String status = AmsClient.computeStatusIfToday(day, time);
+                        dayItems.add(new TimetableItem(code, subjectName, time, status));
+                    }
+
+                    timetableByDay.put(day, dayItems);
+                }
+            }
+        }
+        return timetableByDay;
+    }
+
+    private static Elements rowsOf(Element table) {
+        return table == null ? new Elements() : table.select("tr");
+    }
+
+    private static String textOrEmpty(Element e) {
+        return e == null ? "" : e.text().trim();
+    }
+}
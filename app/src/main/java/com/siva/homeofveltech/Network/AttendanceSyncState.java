@@ -0,0 +1,193 @@
+package com.siva.homeofveltech.Network;
+
+import com.google.gson.Gson;
+import com.siva.homeofveltech.Model.PeriodAttendanceItem;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Persisted period-level attendance history, per subject and per month ("yyyy-MM").
+ * Only the current and previous month can still change on AMS, so once seeded a sync
+ * re-fetches just those months and every older month stays frozen.
+ */
+public class AttendanceSyncState {
+
+    /** Rows whose date could not be parsed; only ever replaced by a full re-seed. */
+    static final String UNDATED = "";
+
+    public static class SubjectHistory {
+        public String subjectName;
+        public Map<String, List<PeriodAttendanceItem>> months = new LinkedHashMap<>();
+    }
+
+    public Map<String, SubjectHistory> subjects = new LinkedHashMap<>();
+    /** Current month at the last successful sync; null until the first full crawl. */
+    public String lastSyncedMonth;
+    /** AMS row order as seen on the seed crawl, kept when flattening. */
+    public boolean newestFirst;
+
+    public static AttendanceSyncState fromJson(String json) {
+        try {
+            if (json == null || json.trim().isEmpty()) return new AttendanceSyncState();
+            AttendanceSyncState state = new Gson().fromJson(json, AttendanceSyncState.class);
+            if (state == null) return new AttendanceSyncState();
+            if (state.subjects == null) state.subjects = new LinkedHashMap<>();
+            return state;
+        } catch (Exception e) {
+            return new AttendanceSyncState();
+        }
+    }
+
+    public String toJson() {
+        return new Gson().toJson(this);
+    }
+
+    /** Takes over a copy of another state's contents (e.g. one produced by a coalesced sync). */
+    void copyFrom(AttendanceSyncState other) {
+        subjects = new LinkedHashMap<>();
+        for (Map.Entry<String, SubjectHistory> e : other.subjects.entrySet()) {
+            SubjectHistory h = new SubjectHistory();
+            h.subjectName = e.getValue().subjectName;
+            for (Map.Entry<String, List<PeriodAttendanceItem>> m : e.getValue().months.entrySet()) {
+                h.months.put(m.getKey(), new ArrayList<>(m.getValue()));
+            }
+            subjects.put(e.getKey(), h);
+        }
+        lastSyncedMonth = other.lastSyncedMonth;
+        newestFirst = other.newestFirst;
+    }
+
+    boolean needsSeed() {
+        return lastSyncedMonth == null || subjects.isEmpty();
+    }
+
+    /**
+     * {year, month(1-12)} pairs to re-fetch: from the month before the last sync up to the current
+     * month, so a gap of several months without syncing still closes every month it missed.
+     */
+    List<int[]> monthsToFetch(long now) {
+        Calendar end = Calendar.getInstance();
+        end.setTimeInMillis(now);
+        int endKey = end.get(Calendar.YEAR) * 12 + end.get(Calendar.MONTH);
+
+        int startKey = endKey - 1;
+        int last = monthIndex(lastSyncedMonth);
+        if (last >= 0 && last - 1 < startKey) startKey = last - 1;
+
+        List<int[]> out = new ArrayList<>();
+        for (int k = startKey; k <= endKey; k++) {
+            out.add(new int[]{k / 12, (k % 12) + 1});
+        }
+        return out;
+    }
+
+    /** Replaces a subject's whole history with a full-semester crawl result. */
+    void replaceAll(String subjectCode, String subjectName, List<PeriodAttendanceItem> periods) {
+        SubjectHistory h = new SubjectHistory();
+        h.subjectName = subjectName;
+        for (PeriodAttendanceItem item : periods) {
+            String month = monthOf(item.date);
+            List<PeriodAttendanceItem> list = h.months.get(month);
+            if (list == null) {
+                list = new ArrayList<>();
+                h.months.put(month, list);
+            }
+            list.add(item);
+        }
+        subjects.put(subjectCode, h);
+    }
+
+    /** Replaces one month for every known subject with the rows of a month-wise query (absent => none). */
+    void replaceMonth(int year, int month, Map<String, List<PeriodAttendanceItem>> bySubject,
+                      Map<String, String> codeToName) {
+        String key = monthKey(year, month);
+
+        for (String code : bySubject.keySet()) {
+            if (!subjects.containsKey(code)) {
+                SubjectHistory h = new SubjectHistory();
+                h.subjectName = codeToName.get(code);
+                subjects.put(code, h);
+            }
+        }
+
+        for (Map.Entry<String, SubjectHistory> e : subjects.entrySet()) {
+            List<PeriodAttendanceItem> rows = bySubject.get(e.getKey());
+            if (rows == null || rows.isEmpty()) {
+                e.getValue().months.remove(key);
+            } else {
+                e.getValue().months.put(key, new ArrayList<>(rows));
+            }
+        }
+    }
+
+    /** Drops subjects that are no longer in the Courselist (e.g. after a semester change). */
+    void retainSubjects(Collection<String> codes) {
+        if (codes.isEmpty()) return;
+        subjects.keySet().retainAll(codes);
+    }
+
+    void markSynced(long now) {
+        Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(now);
+        lastSyncedMonth = monthKey(c.get(Calendar.YEAR), c.get(Calendar.MONTH) + 1);
+    }
+
+    /** All of a subject's rows, months in AMS order. */
+    List<PeriodAttendanceItem> flatten(String subjectCode) {
+        List<PeriodAttendanceItem> out = new ArrayList<>();
+        SubjectHistory h = subjects.get(subjectCode);
+        if (h == null) return out;
+
+        List<String> months = new ArrayList<>(h.months.keySet());
+        Collections.sort(months);
+        if (newestFirst) Collections.reverse(months);
+
+        for (String m : months) out.addAll(h.months.get(m));
+        return out;
+    }
+
+    /** True when the first dated row is later than the last one. */
+    static boolean isNewestFirst(List<PeriodAttendanceItem> periods) {
+        Date first = null;
+        Date last = null;
+        for (PeriodAttendanceItem item : periods) {
+            Date d = AmsClient.parseAttendanceDate(item.date);
+            if (d == null) continue;
+            if (first == null) first = d;
+            last = d;
+        }
+        return first != null && first.after(last);
+    }
+
+    static String monthOf(String date) {
+        Date d = AmsClient.parseAttendanceDate(date);
+        if (d == null) return UNDATED;
+        Calendar c = Calendar.getInstance();
+        c.setTime(d);
+        return monthKey(c.get(Calendar.YEAR), c.get(Calendar.MONTH) + 1);
+    }
+
+    static String monthKey(int year, int month) {
+        return String.format(Locale.US, "%04d-%02d", year, month);
+    }
+
+    /** "2025-11" -> year * 12 + (month - 1), -1 if malformed. */
+    private static int monthIndex(String key) {
+        if (key == null || key.length() != 7) return -1;
+        try {
+            int year = Integer.parseInt(key.substring(0, 4));
+            int month = Integer.parseInt(key.substring(5, 7));
+            return year * 12 + (month - 1);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
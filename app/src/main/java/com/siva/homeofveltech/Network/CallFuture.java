@@ -0,0 +1,30 @@
+package com.siva.homeofveltech.Network;
+
+import java.util.concurrent.CompletableFuture;
+
+import okhttp3.Call;
+
+/**
+ * Result of one async {@link AmsClient} fetch. Unlike a plain {@link CompletableFuture},
+ * {@link #cancel} also cancels the OkHttp {@link Call} behind it, so the socket is released and
+ * the parse step never runs. Stages derived with {@code thenApply} etc. do not propagate
+ * cancellation back here; keep a reference to this future to cancel.
+ */
+public class CallFuture<T> extends CompletableFuture<T> {
+
+    private volatile Call call;
+
+    /** Binds the in-flight call; cancels it right away if this future was cancelled first. */
+    void attach(Call call) {
+        this.call = call;
+        if (isCancelled()) call.cancel();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Call c = call;
+        if (c != null) c.cancel();
+        return cancelled;
+    }
+}
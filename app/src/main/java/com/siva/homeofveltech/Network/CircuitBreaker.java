@@ -0,0 +1,160 @@
+package com.siva.homeofveltech.Network;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Per-host circuit breaker. After {@link #FAILURE_THRESHOLD} consecutive failures (I/O errors or
+ * 5xx, counted after retries) the host is OPEN and requests fail at once with
+ * {@link CircuitOpenException}, so screens drop to their cached data instead of waiting out the
+ * 25 s timeouts. After the open period one trial request is let through (HALF_OPEN): success
+ * closes the circuit, failure re-opens it for twice as long (up to {@link #MAX_OPEN_MS}).
+ * Cancelled calls count as neither success nor failure.
+ */
+public class CircuitBreaker implements Interceptor {
+
+    static final int FAILURE_THRESHOLD = 4;
+    static final long BASE_OPEN_MS = 30_000;
+    static final long MAX_OPEN_MS = 5 * 60_000;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public interface Listener {
+        void onStateChanged(String host, State from, State to);
+    }
+
+    /** Thrown instead of sending a request while the host's circuit is open. */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public final String host;
+        public final long retryAtMillis;
+
+        CircuitOpenException(String host, long retryAtMillis) {
+            super("AMS unavailable (circuit open for " + host + ")");
+            this.host = host;
+            this.retryAtMillis = retryAtMillis;
+        }
+    }
+
+    private static final class HostCircuit {
+        State state = State.CLOSED;
+        int failures;
+        long openMs;
+        long openUntil;
+        boolean trialInFlight;
+
+        HostCircuit(long openMs) {
+            this.openMs = openMs;
+        }
+    }
+
+    private final Map<String, HostCircuit> circuits = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final long baseOpenMs;
+
+    public CircuitBreaker() {
+        this(BASE_OPEN_MS);
+    }
+
+    /** {@code baseOpenMs}: first open period; tests shorten it. */
+    CircuitBreaker(long baseOpenMs) {
+        this.baseOpenMs = baseOpenMs;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        HostCircuit c = circuits.computeIfAbsent(host, h -> new HostCircuit(baseOpenMs));
+        admit(host, c);
+
+        Response res;
+        try {
+            res = chain.proceed(chain.request());
+        } catch (IOException e) {
+            if (chain.call().isCanceled()) abandonTrial(c);
+            else onResult(host, c, false);
+            throw e;
+        }
+        onResult(host, c, res.code() < 500);
+        return res;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public State getState(String host) {
+        HostCircuit c = circuits.get(host);
+        if (c == null) return State.CLOSED;
+        synchronized (c) {
+            return c.state;
+        }
+    }
+
+    private void admit(String host, HostCircuit c) throws CircuitOpenException {
+        State from;
+        synchronized (c) {
+            if (c.state == State.CLOSED) return;
+            if (c.state == State.OPEN && System.currentTimeMillis() < c.openUntil || c.trialInFlight) {
+                throw new CircuitOpenException(host, c.openUntil);
+            }
+            // open period over (or half-open without a trial running): this request is the trial
+            from = c.state;
+            c.state = State.HALF_OPEN;
+            c.trialInFlight = true;
+        }
+        if (from != State.HALF_OPEN) notifyChange(host, from, State.HALF_OPEN);
+    }
+
+    private void onResult(String host, HostCircuit c, boolean success) {
+        State from;
+        State to;
+        synchronized (c) {
+            from = c.state;
+            c.trialInFlight = false;
+            if (success) {
+                c.failures = 0;
+                c.openMs = baseOpenMs;
+                c.state = State.CLOSED;
+            } else if (c.state == State.HALF_OPEN) {
+                c.openMs = Math.min(MAX_OPEN_MS, c.openMs * 2);
+                open(c);
+            } else if (++c.failures >= FAILURE_THRESHOLD && c.state == State.CLOSED) {
+                open(c);
+            }
+            to = c.state;
+        }
+        if (from != to) notifyChange(host, from, to);
+    }
+
+    private void abandonTrial(HostCircuit c) {
+        synchronized (c) {
+            c.trialInFlight = false;
+        }
+    }
+
+    private static void open(HostCircuit c) {
+        c.state = State.OPEN;
+        c.openUntil = System.currentTimeMillis() + c.openMs;
+    }
+
+    private void notifyChange(String host, State from, State to) {
+        for (Listener l : listeners) {
+            try {
+                l.onStateChanged(host, from, to);
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.siva.homeofveltech.Network;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Opens a pooled connection to AMS ahead of the first real request (e.g. while the splash
+ * animation plays): DNS, TCP and TLS are paid by a HEAD on the shared {@link OkHttpProvider}
+ * client, so the first dashboard fetch reuses a hot keep-alive connection. The warm-up also makes
+ * the cookie jar load its persisted cookies off the main thread.
+ */
+public final class ConnectionWarmer {
+
+    private static final String WARMUP_URL = "https://ams.veltech.edu.in/index.aspx";
+
+    private ConnectionWarmer() {}
+
+    /** Per-phase durations in ms; -1 when the phase did not happen (e.g. connection already pooled). */
+    public static class Timings {
+        public long dnsMs = -1;
+        public long connectMs = -1; // TCP + TLS
+        public long tlsMs = -1;
+        public long firstByteMs = -1;
+        public long totalMs = -1;
+        public boolean reusedConnection = true;
+        public String error;
+
+        @Override
+        public String toString() {
+            if (error != null) return "failed after " + totalMs + "ms: " + error;
+            return "dns=" + dnsMs + "ms, connect=" + connectMs + "ms (tls=" + tlsMs + "ms), firstByte="
+                    + firstByteMs + "ms, total=" + totalMs + "ms, reused=" + reusedConnection;
+        }
+    }
+
+    /** Blocking; run it on a worker thread. Never throws, failures are reported in {@link Timings#error}. */
+    public static Timings warmUp() {
+        Timings t = new Timings();
+        long start = System.nanoTime();
+
+        OkHttpClient shared = OkHttpProvider.getClient();
+        EventListener.Factory counters = OkHttpProvider.getHandshakeCounter();
+        OkHttpClient client = shared.newBuilder()
+                .eventListenerFactory(call -> new PhaseListener(t, counters.create(call)))
+                .build(); // same pool and cookie jar; only the listener differs
+
+        Request head = new Request.Builder()
+                .url(WARMUP_URL)
+                .head()
+                .header("User-Agent", "Mozilla/5.0")
+                .build();
+
+        try {
+            client.newCall(head).execute().close(); // only the connection is wanted
+        } catch (IOException e) {
+            t.error = e.getMessage();
+        }
+
+        t.totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return t;
+    }
+
+    /** Records the phases; forwards the events the shared handshake counter needs. */
+    private static final class PhaseListener extends EventListener {
+        private final Timings t;
+        private final EventListener counter;
+        private long dnsStart;
+        private long connectStart;
+        private long tlsStart;
+        private long requestStart;
+
+        PhaseListener(Timings t, EventListener counter) {
+            this.t = t;
+            this.counter = counter;
+        }
+
+        private static long msSince(long startNanos) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            t.dnsMs = msSince(dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+            t.reusedConnection = false;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStart = System.nanoTime();
+            counter.secureConnectStart(call);
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            t.tlsMs = msSince(tlsStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            t.connectMs = msSince(connectStart);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol, IOException e) {
+            counter.connectFailed(call, address, proxy, protocol, e);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            counter.connectionAcquired(call, connection);
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            t.firstByteMs = msSince(requestStart);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.siva.homeofveltech.Network;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over an ASP.NET AJAX async-postback ("delta") response.
+ * The body is a sequence of {@code length|type|id|content|} entries; {@code length} is the content
+ * length in UTF-16 chars, so the walk follows the declared lengths instead of splitting on '|'
+ * (panel HTML may contain '|'). Entries only record offsets into the original body, and content
+ * is materialized when asked for.
+ */
+final class DeltaResponse {
+
+    private final String body;
+    private final List<int[]> entries = new ArrayList<>(); // {typeStart, typeEnd, idStart, idEnd, contentStart, contentEnd}
+    private final boolean complete;
+
+    private DeltaResponse(String body) {
+        this.body = body == null ? "" : body;
+        this.complete = index();
+    }
+
+    static DeltaResponse parse(String body) {
+        return new DeltaResponse(body);
+    }
+
+    /** False when the body was not a well-formed delta (e.g. a full HTML page); entries before the break are kept. */
+    boolean isComplete() {
+        return complete;
+    }
+
+    private boolean index() {
+        int pos = 0;
+        int len = body.length();
+
+        while (pos < len) {
+            int lenEnd = body.indexOf('|', pos);
+            if (lenEnd < 0) return false;
+
+            int contentLength;
+            try {
+                contentLength = Integer.parseInt(body.substring(pos, lenEnd));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+
+            int typeStart = lenEnd + 1;
+            int typeEnd = body.indexOf('|', typeStart);
+            if (typeEnd < 0) return false;
+
+            int idStart = typeEnd + 1;
+            int idEnd = body.indexOf('|', idStart);
+            if (idEnd < 0) return false;
+
+            int contentStart = idEnd + 1;
+            int contentEnd = contentStart + contentLength;
+            if (contentLength < 0 || contentEnd >= len || body.charAt(contentEnd) != '|') return false;
+
+            entries.add(new int[]{typeStart, typeEnd, idStart, idEnd, contentStart, contentEnd});
+            pos = contentEnd + 1;
+        }
+        return true;
+    }
+
+    private boolean matches(int start, int end, String s) {
+        return end - start == s.length() && body.regionMatches(start, s, 0, s.length());
+    }
+
+    private String content(int[] e) {
+        return body.substring(e[4], e[5]);
+    }
+
+    /** Content of the first entry of {@code type} with {@code id}, or null. */
+    String get(String type, String id) {
+        for (int[] e : entries) {
+            if (matches(e[0], e[1], type) && matches(e[2], e[3], id)) return content(e);
+        }
+        return null;
+    }
+
+    /** Content of the first entry of {@code type} (any id), or null. */
+    String first(String type) {
+        for (int[] e : entries) {
+            if (matches(e[0], e[1], type)) return content(e);
+        }
+        return null;
+    }
+
+    String updatePanel(String panelId) {
+        return get("updatePanel", panelId);
+    }
+
+    /** New __VIEWSTATE / __EVENTVALIDATION etc. carried by this response. */
+    Map<String, String> hiddenFields() {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (int[] e : entries) {
+            if (matches(e[0], e[1], "hiddenField")) {
+                out.put(body.substring(e[2], e[3]), content(e));
+            }
+        }
+        return out;
+    }
+
+    /** Copies {@code prev} and overrides it with this response's hidden fields, ready for the next postback. */
+    Map<String, String> mergeHiddenFields(Map<String, String> prev) {
+        Map<String, String> out = new LinkedHashMap<>(prev);
+        out.putAll(hiddenFields());
+        return out;
+    }
+}
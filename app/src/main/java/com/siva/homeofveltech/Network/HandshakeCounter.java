@@ -0,0 +1,102 @@
+package com.siva.homeofveltech.Network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Counts TLS handshakes on new connections as resumed or full, from OkHttp's connection events.
+ * A handshake counts as resumed when the negotiated session was created before the handshake
+ * started (TLS 1.2 session-id / ticket resumption keeps the original session) or its id was
+ * already seen. Pooled connections do no handshake and are not counted.
+ */
+public final class HandshakeCounter implements EventListener.Factory {
+
+    private static final int MAX_TRACKED_IDS = 64;
+
+    private final AtomicInteger full = new AtomicInteger();
+    private final AtomicInteger resumed = new AtomicInteger();
+    private final Set<String> seenIds = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_TRACKED_IDS;
+        }
+    });
+
+    public int getFullHandshakeCount() {
+        return full.get();
+    }
+
+    public int getResumedHandshakeCount() {
+        return resumed.get();
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new Listener();
+    }
+
+    @Override
+    public String toString() {
+        return "tlsFull=" + full.get() + ", tlsResumed=" + resumed.get();
+    }
+
+    void onHandshake(SSLSession session, long handshakeStartedAt) {
+        String id = hex(session.getId());
+
+        boolean seen;
+        synchronized (seenIds) {
+            seen = !id.isEmpty() && !seenIds.add(id);
+        }
+        if (seen || session.getCreationTime() < handshakeStartedAt) {
+            resumed.incrementAndGet();
+        } else {
+            full.incrementAndGet();
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        if (bytes == null) return "";
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        return sb.toString();
+    }
+
+    /** One per call; a call may try several routes, each with its own handshake. */
+    private final class Listener extends EventListener {
+        private long handshakeStartedAt; // 0 = no handshake pending
+
+        @Override
+        public void secureConnectStart(Call call) {
+            handshakeStartedAt = System.currentTimeMillis(); // wall clock, like SSLSession.getCreationTime()
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol, IOException e) {
+            handshakeStartedAt = 0;
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            if (handshakeStartedAt == 0) return; // pooled, or plain HTTP
+            long startedAt = handshakeStartedAt;
+            handshakeStartedAt = 0;
+            Socket socket = connection.socket();
+            if (socket instanceof SSLSocket) onHandshake(((SSLSocket) socket).getSession(), startedAt);
+        }
+    }
+}
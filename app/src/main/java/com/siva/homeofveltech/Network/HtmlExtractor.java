@@ -0,0 +1,187 @@
+package com.siva.homeofveltech.Network;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams an ASP.NET page through jsoup's {@link StreamParser} and keeps only what AmsClient reads:
+ * the hidden inputs and the elements with the requested ids. Every other element is dropped as soon
+ * as it is complete, except the ancestors of wanted elements (so callers can still walk up from one,
+ * e.g. to its UpdatePanel; by then their other children are already gone), and reading stops once
+ * all ids (and __EVENTVALIDATION) have been seen, so the multi-hundred-KB __VIEWSTATE pages never
+ * become a full DOM.
+ */
+public final class HtmlExtractor {
+
+    private HtmlExtractor() {}
+
+    public static class Result {
+        public final Map<String, String> hiddenFields;
+        public final boolean loginForm;
+        public final boolean stoppedEarly;
+        public final long parseNanos;
+        /** Body of the PageRequestManager._initialize script, null if the page has no ScriptManager. */
+        public final String pageRequestManagerInit;
+        private final Map<String, Element> elements;
+
+        Result(Map<String, String> hiddenFields, Map<String, Element> elements, String pageRequestManagerInit,
+               boolean loginForm, boolean stoppedEarly, long parseNanos) {
+            this.hiddenFields = hiddenFields;
+            this.elements = elements;
+            this.pageRequestManagerInit = pageRequestManagerInit;
+            this.loginForm = loginForm;
+            this.stoppedEarly = stoppedEarly;
+            this.parseNanos = parseNanos;
+        }
+
+        /** Element with this id, or null if the page did not contain it. */
+        public Element get(String id) {
+            return elements.get(id);
+        }
+    }
+
+    public static Result extract(String html, Set<String> ids) throws IOException {
+        return extract(new StringReader(html == null ? "" : html), "", ids);
+    }
+
+    /**
+     * Parses {@code reader} until every id in {@code ids} is found. The caller owns the reader;
+     * closing the response afterwards lets OkHttp drain the unread tail for connection reuse.
+     */
+    public static Result extract(Reader reader, String baseUri, Set<String> ids) throws IOException {
+        long start = System.nanoTime();
+        Map<String, String> hidden = new LinkedHashMap<>();
+        Map<String, Element> found = new HashMap<>();
+        Set<Element> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+        String prmInit = null;
+        boolean loginForm = false;
+        boolean stoppedEarly = false;
+
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser())) {
+            streamer.parse(reader, baseUri);
+
+            for (Element el : (Iterable<Element>) streamer::iterator) {
+                String id = el.id();
+
+                if ("input".equals(el.normalName())) {
+                    String name = el.attr("name");
+                    if ("txtUserName".equals(name) || "txtUserName".equals(id)) loginForm = true;
+
+                    if ("hidden".equalsIgnoreCase(el.attr("type")) && !name.trim().isEmpty()) {
+                        hidden.put(name, el.attr("value"));
+                        if (!insideWanted(el, ids)) el.remove();
+                        continue;
+                    }
+                }
+
+                if (prmInit == null && "script".equals(el.normalName())
+                        && el.data().contains("PageRequestManager._initialize")) {
+                    prmInit = el.data();
+                }
+
+                if (!id.isEmpty() && ids.contains(id)) {
+                    found.put(id, el);
+                    // still open, so not yielded yet: mark them before they complete
+                    for (Element p = el.parent(); p != null; p = p.parent()) ancestors.add(p);
+                } else if (!ancestors.contains(el) && !insideWanted(el, ids)) {
+                    // already complete and not needed: prune so the tree stays small
+                    el.remove();
+                }
+
+                if (found.size() == ids.size() && hidden.containsKey("__EVENTVALIDATION")) {
+                    stoppedEarly = true;
+                    streamer.stop();
+                    break;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // jsoup wraps read failures (e.g. the call cancelled mid-body); keep them checked
+            throw e.getCause();
+        }
+
+        return new Result(hidden, Collections.unmodifiableMap(found), prmInit, loginForm, stoppedEarly,
+                System.nanoTime() - start);
+    }
+
+    private static boolean insideWanted(Element el, Set<String> ids) {
+        for (Element p = el.parent(); p != null; p = p.parent()) {
+            String pid = p.id();
+            if (!pid.isEmpty() && ids.contains(pid)) return true;
+        }
+        return false;
+    }
+
+    // -------------------- Measurement --------------------
+
+    /** Parse time and heap allocated by the full DOM path vs the streaming path, for one page. */
+    public static class Comparison {
+        public final long domNanos;
+        public final long streamNanos;
+        public final long domAllocatedBytes;    // -1 when the runtime cannot report it
+        public final long streamAllocatedBytes; // -1 when the runtime cannot report it
+
+        Comparison(long domNanos, long streamNanos, long domAllocatedBytes, long streamAllocatedBytes) {
+            this.domNanos = domNanos;
+            this.streamNanos = streamNanos;
+            this.domAllocatedBytes = domAllocatedBytes;
+            this.streamAllocatedBytes = streamAllocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "dom=" + (domNanos / 1000) + "us/" + domAllocatedBytes + "B, stream="
+                    + (streamNanos / 1000) + "us/" + streamAllocatedBytes + "B";
+        }
+    }
+
+    /**
+     * Runs both parsers over {@code html}. Allocation counts come from the JVM thread MXBean
+     * (desktop / unit tests); on ART they are -1 and the Memory Profiler should be used instead.
+     */
+    public static Comparison compareWithDom(String html, Set<String> ids) throws IOException {
+        long a0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        Document doc = Jsoup.parse(html);
+        for (String id : ids) doc.getElementById(id);
+        doc.select("input[type=hidden][name]");
+        long domNanos = System.nanoTime() - t0;
+        long a1 = allocatedBytes();
+
+        long t1 = System.nanoTime();
+        extract(html, ids);
+        long streamNanos = System.nanoTime() - t1;
+        long a2 = allocatedBytes();
+
+        boolean hasAlloc = a0 >= 0;
+        return new Comparison(domNanos, streamNanos, hasAlloc ? a1 - a0 : -1, hasAlloc ? a2 - a1 : -1);
+    }
+
+    private static long allocatedBytes() {
+        try {
+            // reflective: java.lang.management is not part of the Android SDK
+            Object bean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean").invoke(null);
+            Class<?> sunBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (!sunBean.isInstance(bean)) return -1;
+            Method m = sunBean.getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) m.invoke(bean, Thread.currentThread().getId());
+        } catch (Throwable t) {
+            return -1;
+        }
+    }
+}
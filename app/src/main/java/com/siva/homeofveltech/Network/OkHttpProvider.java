@@ -1,17 +1,55 @@
 package com.siva.homeofveltech.Network;
 
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Dns;
 import okhttp3.OkHttpClient;
 
 public class OkHttpProvider {
 
-    private static OkHttpClient client;
+    private static final SimpleCookieJar cookieJar = new SimpleCookieJar();
+    private static final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private static final RetryInterceptor retryInterceptor = new RetryInterceptor();
+    private static final RefreshThrottle refreshThrottle = new RefreshThrottle();
+    private static final HandshakeCounter handshakeCounter = new HandshakeCounter();
 
+    static {
+        circuitBreaker.addListener(refreshThrottle); // an opening circuit is a load signal too
+    }
+
+    private static volatile OkHttpClient client;
+
+    // Set once at app start, before the first getClient()
+    private static Dns dns = Dns.SYSTEM;
+
+    /** The one shared client (pool, cookie jar, dispatcher); safe to call from any thread. */
     public static OkHttpClient getClient() {
+        OkHttpClient c = client;
+        return c != null ? c : createClient();
+    }
+
+    private static synchronized OkHttpClient createClient() {
         if (client == null) {
             client = new OkHttpClient.Builder()
-                    .cookieJar(new SimpleCookieJar()) // ✅ keeps AMS session cookies
+                    .cookieJar(cookieJar) // ✅ keeps AMS session cookies
+                    .dns(dns)
+                    // outermost first: an open circuit fails before any retry, retries see each attempt
+                    .addInterceptor(circuitBreaker)
+                    .addInterceptor(retryInterceptor)
+                    .addInterceptor(refreshThrottle) // sees every attempt's 429/503
+                    .addInterceptor(chain -> {
+                        try {
+                            return chain.proceed(chain.request());
+                        } catch (ConnectException | NoRouteToHostException e) {
+                            // cached addresses may be stale; resolve again next time
+                            if (dns instanceof PersistentDns) ((PersistentDns) dns).invalidate(chain.request().url().host());
+                            throw e;
+                        }
+                    })
+                    .eventListenerFactory(handshakeCounter)
                     .followRedirects(true)
                     .followSslRedirects(true)
                     .connectTimeout(25, TimeUnit.SECONDS)
@@ -21,4 +59,44 @@ public class OkHttpProvider {
         }
         return client;
     }
+
+    /** Installs the persistent DNS cache. Only takes effect if called before the first {@link #getClient()}. */
+    public static synchronized void configure(Dns dns) {
+        if (dns != null) OkHttpProvider.dns = dns;
+    }
+
+    /** Per-host breaker on every request; add a listener to observe state changes. */
+    public static CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public static RetryInterceptor getRetryInterceptor() {
+        return retryInterceptor;
+    }
+
+    /** Jitter and load backoff for background refreshes. */
+    public static RefreshThrottle getRefreshThrottle() {
+        return refreshThrottle;
+    }
+
+    /** Resumed vs full TLS handshakes on the shared client's new connections. */
+    public static HandshakeCounter getHandshakeCounter() {
+        return handshakeCounter;
+    }
+
+    /** DNS cache and TLS handshake counters, for logging. */
+    public static String getConnectionStats() {
+        return dns + ", " + handshakeCounter;
+    }
+
+    /** Persists the shared cookie jar so the AMS session survives process death. Call once at app start. */
+    public static void setCookiePersistence(SimpleCookieJar.Persistence persistence, Executor flushExecutor) {
+        cookieJar.setPersistence(persistence, flushExecutor);
+    }
+
+    /** Logout: forgets the AMS session cookies (in memory and on disk). */
+    public static void clearSession() {
+        cookieJar.clear();
+        SessionTracker.getInstance().markExpired();
+    }
 }
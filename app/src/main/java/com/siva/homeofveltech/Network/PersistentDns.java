@@ -0,0 +1,187 @@
+package com.siva.homeofveltech.Network;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Dns;
+
+/**
+ * {@link Dns} with a TTL'd cache that survives app restarts, so a cold start does not wait on the
+ * resolver. Fresh entries are served directly; expired ones go to the system resolver, and only if
+ * that fails is a stale entry (up to {@link #MAX_STALE_MS}) used. {@link #invalidate} drops a host
+ * whose cached addresses stopped answering, so the next lookup resolves it again.
+ */
+public class PersistentDns implements Dns {
+
+    static final long TTL_MS = 30L * 60 * 1000;
+    static final long MAX_STALE_MS = 7L * 24 * 60 * 60 * 1000;
+
+    /** Durable storage for the serialized cache (the app uses PrefsManager's encrypted prefs). */
+    public interface Persistence {
+        String load();
+
+        void save(String serialized);
+    }
+
+    private static class Entry {
+        List<String> addresses;
+        long resolvedAt;
+    }
+
+    private final Dns upstream;
+    private final Persistence persistence;
+    private final Executor flushExecutor;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean loaded;
+    private boolean flushPending;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger staleFallbacks = new AtomicInteger();
+
+    public PersistentDns(Persistence persistence, Executor flushExecutor) {
+        this(Dns.SYSTEM, persistence, flushExecutor);
+    }
+
+    PersistentDns(Dns upstream, Persistence persistence, Executor flushExecutor) {
+        this.upstream = upstream;
+        this.persistence = persistence;
+        this.flushExecutor = flushExecutor;
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        long now = System.currentTimeMillis();
+        Entry cached;
+        synchronized (this) {
+            ensureLoaded();
+            cached = entries.get(hostname);
+        }
+
+        if (cached != null && now - cached.resolvedAt < TTL_MS) {
+            List<InetAddress> out = toAddresses(hostname, cached.addresses);
+            if (!out.isEmpty()) {
+                hits.incrementAndGet();
+                return out;
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            List<InetAddress> resolved = upstream.lookup(hostname);
+            store(hostname, resolved, now);
+            return resolved;
+        } catch (UnknownHostException e) {
+            if (cached != null && now - cached.resolvedAt < MAX_STALE_MS) {
+                List<InetAddress> stale = toAddresses(hostname, cached.addresses);
+                if (!stale.isEmpty()) {
+                    staleFallbacks.incrementAndGet();
+                    return stale;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /** Forgets {@code hostname}, e.g. after connecting to its cached addresses failed. */
+    public void invalidate(String hostname) {
+        boolean removed;
+        synchronized (this) {
+            ensureLoaded();
+            removed = entries.remove(hostname) != null;
+        }
+        if (removed) scheduleFlush();
+    }
+
+    public int getHitCount() {
+        return hits.get();
+    }
+
+    public int getMissCount() {
+        return misses.get();
+    }
+
+    public int getStaleFallbackCount() {
+        return staleFallbacks.get();
+    }
+
+    @Override
+    public String toString() {
+        return "dnsHits=" + hits.get() + ", dnsMisses=" + misses.get() + ", staleFallbacks=" + staleFallbacks.get();
+    }
+
+    private void store(String hostname, List<InetAddress> resolved, long now) {
+        Entry e = new Entry();
+        e.addresses = new ArrayList<>();
+        for (InetAddress a : resolved) e.addresses.add(a.getHostAddress());
+        e.resolvedAt = now;
+        synchronized (this) {
+            entries.put(hostname, e);
+        }
+        scheduleFlush();
+    }
+
+    private static List<InetAddress> toAddresses(String hostname, List<String> literals) {
+        List<InetAddress> out = new ArrayList<>();
+        if (literals == null) return out;
+        for (String ip : literals) {
+            try {
+                // IP literals never hit the resolver; keep the hostname for TLS / logging
+                out.add(InetAddress.getByAddress(hostname, InetAddress.getByName(ip).getAddress()));
+            } catch (Exception ignored) {
+            }
+        }
+        return out;
+    }
+
+    // -------------------- Persistence --------------------
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+        try {
+            String json = persistence.load();
+            if (json == null || json.trim().isEmpty()) return;
+            Map<String, Entry> stored = new Gson().fromJson(json, new TypeToken<Map<String, Entry>>(){}.getType());
+            if (stored == null) return;
+
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, Entry> e : stored.entrySet()) {
+                Entry v = e.getValue();
+                if (v == null || v.addresses == null || now - v.resolvedAt >= MAX_STALE_MS) continue;
+                if (!entries.containsKey(e.getKey())) entries.put(e.getKey(), v);
+            }
+        } catch (Exception ignored) {
+            // a broken cache only costs a lookup
+        }
+    }
+
+    private void scheduleFlush() {
+        synchronized (this) {
+            if (flushPending) return;
+            flushPending = true;
+        }
+        flushExecutor.execute(this::flush);
+    }
+
+    private void flush() {
+        String json;
+        synchronized (this) {
+            flushPending = false;
+            json = new Gson().toJson(new HashMap<>(entries));
+        }
+        try {
+            persistence.save(json);
+        } catch (Exception ignored) {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.siva.homeofveltech.Network;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Decides how long background refreshes (results crawl, attendance history) wait before they run,
+ * so a crowd of cold starts does not hit AMS in the same second.
+ *
+ * Each install gets a fixed offset inside {@link #JITTER_WINDOW_MS}, derived from its install id:
+ * across the fleet the offsets are uniform, while one phone always lands on the same slot. When
+ * AMS shows load (429/503, Retry-After, an opening circuit) the window doubles per signal up to
+ * {@link #MAX_LEVEL}, and relaxes one step per {@link #LEVEL_DECAY_MS} without a new signal.
+ * User-initiated requests are never delayed here; they only feed the signals.
+ */
+public final class RefreshThrottle implements Interceptor, CircuitBreaker.Listener {
+
+    static final long JITTER_WINDOW_MS = 60_000;
+    static final int MAX_LEVEL = 4;
+    static final long LEVEL_DECAY_MS = 2 * 60_000;
+    static final long MAX_DELAY_MS = 15 * 60_000;
+
+    /** Position of this install inside the jitter window, in [0, 1). Random until the id is known. */
+    private volatile double slot = ThreadLocalRandom.current().nextDouble();
+
+    // guarded by this
+    private int level;
+    private long lastSignalAt;
+    private long retryAfterUntil;
+    private int signals;
+
+    /** Fixes this install's slot; {@code installId} should be stable across launches. */
+    public void setInstallId(String installId) {
+        if (installId == null || installId.isEmpty()) return;
+        slot = slotOf(installId);
+    }
+
+    static double slotOf(String installId) {
+        // FNV-1a: String.hashCode() spreads similar ids (UUIDs differ in few chars) too unevenly
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < installId.length(); i++) {
+            h ^= installId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // FNV's last multiply barely reaches the top bits, so ids that differ only at the end
+        // would bunch up; finish with the murmur3 fmix64 avalanche before taking them
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /** Delay before the next background refresh may start. */
+    public synchronized long backgroundDelayMs() {
+        long now = System.currentTimeMillis();
+        int lvl = currentLevel(now);
+        long span = JITTER_WINDOW_MS << lvl;
+        // under load, every install waits at least half the window so the spike cannot re-form
+        long floor = lvl == 0 ? 0 : span / 2;
+        long delay = floor + (long) (slot * (span - floor));
+        delay = Math.max(delay, retryAfterUntil - now);
+        return Math.min(MAX_DELAY_MS, delay);
+    }
+
+    /** Records that AMS is shedding load; {@code retryAfterMs} < 0 when it did not say for how long. */
+    public synchronized void onOverload(long retryAfterMs) {
+        long now = System.currentTimeMillis();
+        level = Math.min(MAX_LEVEL, currentLevel(now) + 1);
+        lastSignalAt = now;
+        signals++;
+        if (retryAfterMs > 0) retryAfterUntil = Math.max(retryAfterUntil, now + retryAfterMs);
+    }
+
+    private int currentLevel(long now) {
+        if (level == 0) return 0;
+        long steps = (now - lastSignalAt) / LEVEL_DECAY_MS;
+        return (int) Math.max(0, level - steps);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response res = chain.proceed(chain.request());
+        if (res.code() == 429 || res.code() == 503) onOverload(RetryInterceptor.retryAfterMs(res));
+        return res;
+    }
+
+    @Override
+    public void onStateChanged(String host, CircuitBreaker.State from, CircuitBreaker.State to) {
+        if (to == CircuitBreaker.State.OPEN) onOverload(-1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "refreshLevel=" + currentLevel(System.currentTimeMillis()) + ", overloadSignals=" + signals
+                + ", slot=" + String.format(Locale.US, "%.3f", slot);
+    }
+}
@@ -0,0 +1,191 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Utils.CancellationToken;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Hedged GETs: if the first attempt has no response after the recent p95 latency, a second
+ * identical GET is sent and whichever answers first wins; the other call is cancelled and its
+ * response closed. Hedges are capped at {@link #MAX_HEDGE_RATIO} of requests so a congested
+ * server sees at most that much extra load. Only GETs are accepted; postbacks must never reach
+ * this class (a duplicated postback would advance the page state twice). A duplicate only helps
+ * when the server handles it independently: requests serialized behind one session lock (ASP.NET
+ * session state) queue up behind the slow original, so the hedge can never win there.
+ */
+public final class RequestHedger {
+
+    static final int WINDOW = 64;
+    static final int MIN_SAMPLES = 8;
+    static final double PERCENTILE = 0.95;
+    static final long DEFAULT_DELAY_MS = 1500;
+    static final long MIN_DELAY_MS = 250;
+    static final long MAX_DELAY_MS = 5000;
+    static final double MAX_HEDGE_RATIO = 0.1;
+
+    private final long[] samples = new long[WINDOW];
+    private int sampleCount;
+    private int nextSample;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger hedges = new AtomicInteger();
+    private final AtomicInteger hedgeWins = new AtomicInteger();
+
+    /** One attempt's result; exactly one of {@code response} / {@code error} is set. */
+    private static final class Outcome {
+        final Call call;
+        final Response response;
+        final IOException error;
+
+        Outcome(Call call, Response response, IOException error) {
+            this.call = call;
+            this.response = response;
+            this.error = error;
+        }
+    }
+
+    /** Collects attempt outcomes; once a winner is taken, late responses are closed on arrival. */
+    private static final class Race {
+        final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        private boolean decided;
+
+        synchronized void offer(Outcome o) {
+            if (decided) {
+                if (o.response != null) o.response.close();
+                return;
+            }
+            outcomes.add(o);
+        }
+
+        synchronized void decide() {
+            decided = true;
+            for (Outcome o : outcomes) {
+                if (o.response != null) o.response.close();
+            }
+            outcomes.clear();
+        }
+    }
+
+    /** Runs {@code req}, hedging it if it is a GET that is slower than usual. Blocking. */
+    public Response execute(OkHttpClient client, Request req, CancellationToken token) throws IOException {
+        if (!"GET".equals(req.method())) throw new IllegalArgumentException("Only GETs are hedged");
+
+        requests.incrementAndGet();
+        Race race = new Race();
+        long primaryStart = System.nanoTime();
+        Call primary = start(client, req, race);
+        Call hedge = null;
+        CancellationToken.Registration primaryReg = token.onCancel(primary::cancel);
+        CancellationToken.Registration hedgeReg = () -> {};
+
+        try {
+            Outcome first = race.outcomes.poll(currentDelayMs(), TimeUnit.MILLISECONDS);
+            if (first == null && allowHedge()) {
+                hedge = start(client, req, race);
+                hedgeReg = token.onCancel(hedge::cancel);
+            }
+            if (first == null) first = race.outcomes.take();
+
+            Outcome winner = first;
+            if (winner.error != null && hedge != null) {
+                winner = race.outcomes.take(); // the other attempt may still succeed
+            }
+
+            race.decide();
+            if (winner.error == null) record(primaryStart); // if the hedge won, the primary was at least this slow
+            CancellationToken.Registration winnerReg;
+            if (winner.call == primary) {
+                if (hedge != null) hedge.cancel();
+                hedgeReg.close();
+                winnerReg = primaryReg;
+            } else {
+                primary.cancel();
+                primaryReg.close();
+                winnerReg = hedgeReg;
+                if (winner.error == null) hedgeWins.incrementAndGet();
+            }
+
+            if (winner.error != null) {
+                winnerReg.close();
+                throw winner.error;
+            }
+            // the winner stays cancellable until its body is closed
+            return AmsClient.unregisterOnClose(winner.response, winnerReg);
+        } catch (InterruptedException e) {
+            race.decide();
+            primary.cancel();
+            if (hedge != null) hedge.cancel();
+            primaryReg.close();
+            hedgeReg.close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + req.url());
+        }
+    }
+
+    private Call start(OkHttpClient client, Request req, Race race) {
+        Call call = client.newCall(req);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                race.offer(new Outcome(c, null, e));
+            }
+
+            @Override
+            public void onResponse(Call c, Response response) {
+                race.offer(new Outcome(c, response, null));
+            }
+        });
+        return call;
+    }
+
+    private boolean allowHedge() {
+        while (true) {
+            int h = hedges.get();
+            if (h + 1 > requests.get() * MAX_HEDGE_RATIO) return false;
+            if (hedges.compareAndSet(h, h + 1)) return true;
+        }
+    }
+
+    // -------------------- Adaptive delay --------------------
+
+    private synchronized void record(long startNanos) {
+        samples[nextSample] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        nextSample = (nextSample + 1) % WINDOW;
+        if (sampleCount < WINDOW) sampleCount++;
+    }
+
+    /** p95 of the last {@link #WINDOW} first-attempt latencies, clamped; a fixed default until warmed up. */
+    public synchronized long currentDelayMs() {
+        if (sampleCount < MIN_SAMPLES) return DEFAULT_DELAY_MS;
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        long p = sorted[Math.min(sampleCount - 1, (int) Math.ceil(PERCENTILE * sampleCount) - 1)];
+        return Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, p));
+    }
+
+    public int getHedgeCount() {
+        return hedges.get();
+    }
+
+    public int getHedgeWinCount() {
+        return hedgeWins.get();
+    }
+
+    @Override
+    public String toString() {
+        return "hedgedGets=" + hedges.get() + "/" + requests.get() + ", hedgeWins=" + hedgeWins.get()
+                + ", delayMs=" + currentDelayMs();
+    }
+}
@@ -0,0 +1,179 @@
+package com.siva.homeofveltech.Network;
+
+import com.google.gson.Gson;
+import com.siva.homeofveltech.Model.SemesterResult;
+import com.siva.homeofveltech.Model.SubjectGrade;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Persisted record of which SemesterMark.aspx YoPList periods have been fetched.
+ * Past periods never change, so a refresh only posts back for periods that are new
+ * and for the newest period while it is still inside the revision window.
+ */
+public class ResultsSyncState {
+
+    /** Newest period keeps being re-fetched until its digest has been stable this long. */
+    static final long REVISION_WINDOW_MS = 14L * 24 * 60 * 60 * 1000;
+
+    private static final String[] MONTHS = {
+            "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    public static class PeriodEntry {
+        public String digest;
+        public long fetchedAt;
+        public long changedAt;
+        public List<SemesterResult> results;
+    }
+
+    public String resultType;
+    public Map<String, PeriodEntry> periods = new LinkedHashMap<>();
+
+    public static ResultsSyncState fromJson(String json) {
+        try {
+            if (json == null || json.trim().isEmpty()) return new ResultsSyncState();
+            ResultsSyncState state = new Gson().fromJson(json, ResultsSyncState.class);
+            if (state == null) return new ResultsSyncState();
+            if (state.periods == null) state.periods = new LinkedHashMap<>();
+            return state;
+        } catch (Exception e) {
+            return new ResultsSyncState();
+        }
+    }
+
+    public String toJson() {
+        return new Gson().toJson(this);
+    }
+
+    /** Takes over a copy of another state's contents (e.g. one produced by a coalesced sync). */
+    void copyFrom(ResultsSyncState other) {
+        resultType = other.resultType;
+        periods = new LinkedHashMap<>();
+        for (Map.Entry<String, PeriodEntry> e : other.periods.entrySet()) {
+            PeriodEntry src = e.getValue();
+            PeriodEntry copy = new PeriodEntry();
+            copy.digest = src.digest;
+            copy.fetchedAt = src.fetchedAt;
+            copy.changedAt = src.changedAt;
+            copy.results = src.results == null ? null : new ArrayList<>(src.results);
+            periods.put(e.getKey(), copy);
+        }
+    }
+
+    /**
+     * Periods from {@code available} that need a postback on this refresh. A period stored without
+     * results (nothing published yet) is re-fetched like the newest one, until it has stayed empty
+     * for the revision window; after that it is done, so a period that never gets results does not
+     * cost a postback on every refresh.
+     */
+    List<String> periodsToFetch(List<String> available, long now) {
+        List<String> out = new ArrayList<>();
+        String newest = newestPeriod(available);
+
+        for (String p : available) {
+            PeriodEntry e = periods.get(p);
+            if (e == null || e.results == null) {
+                out.add(p);
+            } else if ((e.results.isEmpty() || p.equals(newest)) && now - e.changedAt < REVISION_WINDOW_MS) {
+                out.add(p);
+            }
+        }
+        return out;
+    }
+
+    /** Stores a freshly fetched period, keeping {@code changedAt} when the digest is unchanged. */
+    void record(String period, List<SemesterResult> results, long now) {
+        String digest = digest(results);
+        PeriodEntry e = periods.get(period);
+        if (e == null) {
+            e = new PeriodEntry();
+            e.changedAt = now;
+            periods.put(period, e);
+        } else if (!digest.equals(e.digest)) {
+            e.changedAt = now;
+        }
+        e.digest = digest;
+        e.fetchedAt = now;
+        e.results = results;
+    }
+
+    /** Drops periods no longer offered by YoPList; returns stored results in {@code available} order. */
+    List<List<SemesterResult>> retainAndCollect(List<String> available) {
+        periods.keySet().retainAll(available);
+
+        List<List<SemesterResult>> out = new ArrayList<>();
+        for (String p : available) {
+            PeriodEntry e = periods.get(p);
+            if (e != null && e.results != null) out.add(e.results);
+        }
+        return out;
+    }
+
+    static String newestPeriod(List<String> available) {
+        String newest = null;
+        int best = -1;
+        for (String p : available) {
+            int k = periodSortKey(p);
+            if (k > best) {
+                best = k;
+                newest = p;
+            }
+        }
+        return newest;
+    }
+
+    /** "Nov.2025" -> 202511; unknown month sorts first within its year. */
+    private static int periodSortKey(String period) {
+        if (period == null) return 0;
+        String p = period.toLowerCase(Locale.US);
+
+        int year = 0;
+        Matcher m = Pattern.compile("(\\d{4})").matcher(p);
+        if (m.find()) year = Integer.parseInt(m.group(1));
+
+        int month = 0;
+        int firstAt = Integer.MAX_VALUE;
+        for (int i = 0; i < MONTHS.length; i++) {
+            int at = p.indexOf(MONTHS[i]);
+            if (at >= 0 && at < firstAt) {
+                firstAt = at;
+                month = i + 1;
+            }
+        }
+        return year * 100 + month;
+    }
+
+    private static String digest(List<SemesterResult> results) {
+        StringBuilder sb = new StringBuilder();
+        if (results != null) {
+            for (SemesterResult sr : results) {
+                if (sr == null) continue;
+                sb.append(sr.semesterName).append('\n');
+                if (sr.subjects == null) continue;
+                for (SubjectGrade g : sr.subjects) {
+                    if (g == null) continue;
+                    sb.append(g.subjectName).append('|').append(g.grade).append('\n');
+                }
+            }
+        }
+
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) hex.append(String.format(Locale.US, "%02x", b));
+            return hex.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(sb.toString().hashCode());
+        }
+    }
+}
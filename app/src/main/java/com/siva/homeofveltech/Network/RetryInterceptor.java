@@ -0,0 +1,92 @@
+package com.siva.homeofveltech.Network;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Retries idempotent GETs that failed transiently (I/O error, 429, 502, 503, 504) with exponential
+ * backoff and full jitter, or after the server's Retry-After when it sends one. POST postbacks
+ * are never retried: a repeated postback could advance the page state twice.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    static final int MAX_ATTEMPTS = 3;
+    static final long BASE_DELAY_MS = 500;
+    static final long MAX_DELAY_MS = 8_000;
+    /** A longer Retry-After is not waited out; the failure goes to the caller (cached data). */
+    static final long MAX_RETRY_AFTER_MS = 10_000;
+
+    private final AtomicInteger retries = new AtomicInteger();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (!"GET".equals(chain.request().method())) return chain.proceed(chain.request());
+
+        for (int attempt = 1; ; attempt++) {
+            Response res;
+            try {
+                res = chain.proceed(chain.request());
+            } catch (IOException e) {
+                // timeouts are not retried: three 25 s waits would be worse than the cache fallback
+                if (attempt >= MAX_ATTEMPTS || chain.call().isCanceled() || e instanceof InterruptedIOException) {
+                    throw e;
+                }
+                sleep(chain, backoffMs(attempt));
+                continue;
+            }
+
+            if (!isTransient(res.code()) || attempt >= MAX_ATTEMPTS) return res;
+
+            long delay = retryAfterMs(res);
+            if (delay < 0) delay = backoffMs(attempt);
+            if (delay > MAX_RETRY_AFTER_MS) return res;
+
+            res.close();
+            sleep(chain, delay);
+        }
+    }
+
+    /** Retries issued so far (each extra attempt counts once). */
+    public int getRetryCount() {
+        return retries.get();
+    }
+
+    static boolean isTransient(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    /** Full jitter: uniform in [0, min(MAX, BASE * 2^(attempt-1))]. */
+    static long backoffMs(int attempt) {
+        long cap = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /** Retry-After as delta-seconds or HTTP date, -1 if absent or unparseable. */
+    static long retryAfterMs(Response res) {
+        String value = res.header("Retry-After");
+        if (value == null) return -1;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException ignored) {
+        }
+        Date date = res.headers().getDate("Retry-After");
+        return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+
+    private void sleep(Chain chain, long ms) throws IOException {
+        retries.incrementAndGet();
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+        if (chain.call().isCanceled()) throw new IOException("Canceled");
+    }
+}
@@ -0,0 +1,71 @@
+package com.siva.homeofveltech.Network;
+
+import java.util.Locale;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Process-wide view of the AMS session (the cookie jar is shared, so the session is too).
+ * Validity is inferred from the responses of real calls instead of pre-flight page loads:
+ * a redirect to index.aspx, a login form in the page, or a pageRedirect / error delta marks the
+ * session expired; any page that parsed as a normal page pushes "known good until" forward.
+ */
+public final class SessionTracker {
+
+    /** ASP.NET's sliding session timeout is 20 min; stay safely below it. */
+    static final long VALIDITY_MS = 15L * 60 * 1000;
+
+    private static final SessionTracker INSTANCE = new SessionTracker();
+
+    public static SessionTracker getInstance() {
+        return INSTANCE;
+    }
+
+    private volatile long knownGoodUntil;
+
+    private SessionTracker() {}
+
+    /** True while a recent response proved the session alive; the refresh button skips the re-login then. */
+    public boolean isKnownGood() {
+        return System.currentTimeMillis() < knownGoodUntil;
+    }
+
+    void markGood() {
+        knownGoodUntil = System.currentTimeMillis() + VALIDITY_MS;
+    }
+
+    void markExpired() {
+        knownGoodUntil = 0;
+    }
+
+    /** Marks the session expired and returns the exception for the caller to throw. */
+    AmsClient.SessionExpiredException expired() {
+        markExpired();
+        return new AmsClient.SessionExpiredException();
+    }
+
+    /** Redirected to the login page although something else was requested. */
+    static boolean redirectedToLogin(HttpUrl requested, HttpUrl served) {
+        return !isLoginUrl(requested) && isLoginUrl(served);
+    }
+
+    static boolean isLoginUrl(HttpUrl url) {
+        return url != null && url.encodedPath().toLowerCase(Locale.US).endsWith("/index.aspx");
+    }
+
+    /** Session verdict for a streamed page: throws on a login form, otherwise refreshes validity. */
+    void check(HtmlExtractor.Result page) throws AmsClient.SessionExpiredException {
+        if (page.loginForm) throw expired();
+        markGood();
+    }
+
+    /**
+     * Session verdict for an async-postback response. AMS answers an expired session with a
+     * pageRedirect (to index.aspx) or an error entry, or with the full login page instead of a delta.
+     */
+    void check(DeltaResponse delta, String rawBody) throws AmsClient.SessionExpiredException {
+        if (delta.first("pageRedirect") != null || delta.first("error") != null) throw expired();
+        if (!delta.isComplete() && rawBody != null && rawBody.contains("txtUserName")) throw expired();
+        if (delta.isComplete()) markGood();
+    }
+}
@@ -1,56 +1,227 @@
 package com.siva.homeofveltech.Network;
 
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 import okhttp3.Cookie;
 import okhttp3.CookieJar;
 import okhttp3.HttpUrl;
 
+/**
+ * Cookie store indexed by domain, then by (name, path), so a request only looks at the buckets
+ * for its own host and parent domains. Expired cookies are dropped as soon as they are seen.
+ *
+ * With {@link #setPersistence} the jar survives process death: it is read back on first use and
+ * written back lazily (one flush per burst of changes, on the given executor). Session cookies are
+ * kept too, which is what lets a cold start reuse a still-alive ASP.NET session without logging in.
+ */
 public class SimpleCookieJar implements CookieJar {
 
-    private final List<Cookie> cookieStore = new ArrayList<>();
+    /** Durable storage for the serialized jar (the app uses PrefsManager's encrypted prefs). */
+    public interface Persistence {
+        String load();
+
+        void save(String serialized);
+    }
+
+    // domain -> ("name|path" -> cookie)
+    private final Map<String, Map<String, Cookie>> byDomain = new HashMap<>();
+
+    private Persistence persistence;
+    private Executor flushExecutor;
+    private boolean loaded = true;
+    private boolean flushPending;
+
+    public synchronized void setPersistence(Persistence persistence, Executor flushExecutor) {
+        this.persistence = persistence;
+        this.flushExecutor = flushExecutor;
+        this.loaded = false; // read lazily on the first request, off the main thread
+    }
 
     @Override
-    public synchronized void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
-        for (Cookie newCookie : cookies) {
-            // remove old cookie with same (name, domain, path)
-            Iterator<Cookie> it = cookieStore.iterator();
-            while (it.hasNext()) {
-                Cookie old = it.next();
-                if (old.name().equals(newCookie.name())
-                        && old.domain().equals(newCookie.domain())
-                        && old.path().equals(newCookie.path())) {
-                    it.remove();
+    public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
+        boolean changed = false;
+        synchronized (this) {
+            ensureLoaded();
+            long now = System.currentTimeMillis();
+
+            for (Cookie newCookie : cookies) {
+                Map<String, Cookie> bucket = byDomain.get(newCookie.domain());
+                if (bucket == null) {
+                    bucket = new HashMap<>();
+                    byDomain.put(newCookie.domain(), bucket);
+                }
+
+                // an already expired cookie is the server deleting it
+                if (newCookie.expiresAt() < now) {
+                    changed |= bucket.remove(keyOf(newCookie)) != null;
+                } else {
+                    bucket.put(keyOf(newCookie), newCookie);
+                    changed = true;
                 }
             }
-            cookieStore.add(newCookie);
         }
+        if (changed) scheduleFlush();
     }
 
     @Override
-    public synchronized List<Cookie> loadForRequest(HttpUrl url) {
+    public List<Cookie> loadForRequest(HttpUrl url) {
         List<Cookie> valid = new ArrayList<>();
+        boolean changed = false;
+        synchronized (this) {
+            ensureLoaded();
+            long now = System.currentTimeMillis();
+
+            // host-only cookies are stored under the host, domain cookies under a parent domain
+            String domain = url.host();
+            while (domain != null) {
+                Map<String, Cookie> bucket = byDomain.get(domain);
+                if (bucket != null) {
+                    Iterator<Cookie> it = bucket.values().iterator();
+                    while (it.hasNext()) {
+                        Cookie c = it.next();
+                        if (c.expiresAt() < now) {
+                            it.remove();
+                            changed = true;
+                        } else if (c.matches(url)) {
+                            valid.add(c);
+                        }
+                    }
+                }
+                int dot = domain.indexOf('.');
+                domain = dot < 0 ? null : domain.substring(dot + 1);
+            }
+        }
+        if (changed) scheduleFlush();
+        return valid;
+    }
+
+    public void clear() {
+        synchronized (this) {
+            loaded = true; // nothing on disk should come back after a clear
+            byDomain.clear();
+        }
+        scheduleFlush();
+    }
+
+    private static String keyOf(Cookie c) {
+        return c.name() + "|" + c.path();
+    }
+
+    // -------------------- Persistence --------------------
+
+    /** Serialized shape of one cookie; Cookie itself is not Gson-friendly. */
+    private static class StoredCookie {
+        String name;
+        String value;
+        long expiresAt;
+        String domain;
+        String path;
+        boolean secure;
+        boolean httpOnly;
+        boolean hostOnly;
+        boolean persistent;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+
+        String json;
+        try {
+            json = persistence.load();
+        } catch (Exception e) {
+            return;
+        }
+        if (json == null || json.trim().isEmpty()) return;
+
+        List<StoredCookie> stored;
+        try {
+            stored = new Gson().fromJson(json, new TypeToken<List<StoredCookie>>(){}.getType());
+        } catch (Exception e) {
+            return;
+        }
+        if (stored == null) return;
+
         long now = System.currentTimeMillis();
+        for (StoredCookie s : stored) {
+            if (s == null || s.name == null || s.domain == null || s.expiresAt < now) continue;
 
-        Iterator<Cookie> it = cookieStore.iterator();
-        while (it.hasNext()) {
-            Cookie c = it.next();
+            Cookie.Builder b = new Cookie.Builder()
+                    .name(s.name)
+                    .value(s.value == null ? "" : s.value)
+                    .path(s.path == null ? "/" : s.path);
+            if (s.hostOnly) b.hostOnlyDomain(s.domain); else b.domain(s.domain);
+            if (s.persistent) b.expiresAt(s.expiresAt);
+            if (s.secure) b.secure();
+            if (s.httpOnly) b.httpOnly();
 
-            // drop expired
-            if (c.expiresAt() < now) {
-                it.remove();
+            Cookie c;
+            try {
+                c = b.build();
+            } catch (Exception e) {
                 continue;
             }
 
-            // only send cookies that match this request URL
-            if (c.matches(url)) valid.add(c);
+            Map<String, Cookie> bucket = byDomain.get(c.domain());
+            if (bucket == null) {
+                bucket = new HashMap<>();
+                byDomain.put(c.domain(), bucket);
+            }
+            // cookies received before the load finished are newer
+            if (!bucket.containsKey(keyOf(c))) bucket.put(keyOf(c), c);
+        }
+    }
+
+    private void scheduleFlush() {
+        Executor executor;
+        synchronized (this) {
+            if (persistence == null || flushPending) return;
+            flushPending = true;
+            executor = flushExecutor;
         }
-        return valid;
+        executor.execute(this::flush);
     }
 
-    public synchronized void clear() {
-        cookieStore.clear();
+    private void flush() {
+        String json;
+        Persistence target;
+        synchronized (this) {
+            flushPending = false;
+            target = persistence;
+
+            long now = System.currentTimeMillis();
+            List<StoredCookie> out = new ArrayList<>();
+            for (Map<String, Cookie> bucket : byDomain.values()) {
+                for (Cookie c : bucket.values()) {
+                    if (c.expiresAt() < now) continue;
+                    StoredCookie s = new StoredCookie();
+                    s.name = c.name();
+                    s.value = c.value();
+                    s.expiresAt = c.expiresAt();
+                    s.domain = c.domain();
+                    s.path = c.path();
+                    s.secure = c.secure();
+                    s.httpOnly = c.httpOnly();
+                    s.hostOnly = c.hostOnly();
+                    s.persistent = c.persistent();
+                    out.add(s);
+                }
+            }
+            json = new Gson().toJson(out);
+        }
+
+        try {
+            target.save(json);
+        } catch (Exception ignored) {
+            // next change schedules another flush
+        }
     }
 }
@@ -19,13 +19,19 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import com.siva.homeofveltech.Network.ConnectionWarmer;
+import com.siva.homeofveltech.Network.OkHttpProvider;
 import com.siva.homeofveltech.Storage.PrefsManager;
 import com.siva.homeofveltech.UI.Dashboard.DashboardActivity;
 import com.siva.homeofveltech.UI.Login.LoginActivity;
+import com.siva.homeofveltech.Utils.Diagnostics;
 import com.siva.homeofveltech.Utils.NetworkUtils;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
 public class SplashActivity extends AppCompatActivity {
 
+    private static final String TAG = "SplashActivity";
+
     private ImageView ivMovingIcon;
     private ImageView ivFullLogo;
     private View viewCurtain;
@@ -47,9 +53,21 @@ public class SplashActivity extends AppCompatActivity {
         ivFullLogo = findViewById(R.id.iv_full_logo);
         viewCurtain = findViewById(R.id.view_curtain);
 
+        warmUpConnection();
         startAnimations();
     }
 
+    /**
+     * DNS + TCP + TLS to AMS while the animation plays, so the first dashboard fetch finds a
+     * pooled connection. Not tied to this activity: the connection is meant for the next screen.
+     */
+    private void warmUpConnection() {
+        TaskScheduler.get().submit(TaskScheduler.Lane.PREFETCH, "splash-warmup", () -> {
+            ConnectionWarmer.Timings timings = ConnectionWarmer.warmUp();
+            Diagnostics.log(TAG, () -> "AMS warm-up: " + timings + " [" + OkHttpProvider.getConnectionStats() + "]");
+        });
+    }
+
     private void startAnimations() {
         // Initial State
         ivMovingIcon.setVisibility(View.VISIBLE);
@@ -93,13 +111,16 @@ public class SplashActivity extends AppCompatActivity {
 
     private void checkInternetAndProceed() {
         if (NetworkUtils.isNetworkAvailable(this)) {
-            // Internet is available -> Check Login Session
-            PrefsManager prefsManager = new PrefsManager(this);
-            if (prefsManager.hasCredentials()) {
-                navigateToDashboard();
-            } else {
-                navigateToLogin();
-            }
+            // Internet is available -> Check Login Session (prefs were opened during the animation)
+            PrefsManager.whenReady(this, prefsManager -> {
+                if (isFinishing()) return;
+                Diagnostics.log(TAG, () -> "Prefs: " + PrefsManager.getInitStats());
+                if (prefsManager.hasCredentials()) {
+                    navigateToDashboard();
+                } else {
+                    navigateToLogin();
+                }
+            });
         } else {
             // No Internet -> Show Dialog
             showNoInternetDialog();
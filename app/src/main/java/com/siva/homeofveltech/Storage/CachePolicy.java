@@ -0,0 +1,100 @@
+package com.siva.homeofveltech.Storage;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stale-while-revalidate rules for the prefs caches. A screen shows its cached copy at once and
+ * reports it with {@link #onCacheShown}; when the copy is older than its dataset's TTL the screen
+ * refreshes it on the prefetch lane while the cached copy stays on screen. A fresh copy is not
+ * refetched at all. The age of every cached copy shown is recorded per dataset for logging.
+ */
+public final class CachePolicy {
+
+    public enum Dataset {
+        /** Today's timetable + attendance % + CGPA; follows attendance, but costs a results crawl. */
+        DASHBOARD(TimeUnit.HOURS.toMillis(1)),
+        /** Changes after every marked period. */
+        ATTENDANCE(TimeUnit.MINUTES.toMillis(30)),
+        SUBJECT_ATTENDANCE(TimeUnit.MINUTES.toMillis(30)),
+        /** Fixed for the semester. */
+        TIMETABLE(TimeUnit.DAYS.toMillis(7)),
+        /** Only changes when a semester's results are published. */
+        RESULTS(TimeUnit.HOURS.toMillis(12));
+
+        public final long ttlMs;
+
+        Dataset(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    /** Cache ages seen at display time for one dataset. */
+    public static final class AgeStats {
+        public final int shown;
+        public final int stale;
+        public final long avgAgeMs;
+        public final long maxAgeMs;
+
+        AgeStats(int shown, int stale, long avgAgeMs, long maxAgeMs) {
+            this.shown = shown;
+            this.stale = stale;
+            this.avgAgeMs = avgAgeMs;
+            this.maxAgeMs = maxAgeMs;
+        }
+
+        @Override
+        public String toString() {
+            return "shown=" + shown + ", stale=" + stale + ", avgAgeS=" + avgAgeMs / 1000 + ", maxAgeS=" + maxAgeMs / 1000;
+        }
+    }
+
+    private static final int N = Dataset.values().length;
+    private static final int[] shown = new int[N];
+    private static final int[] stale = new int[N];
+    private static final int[] aged = new int[N]; // shown with a known save time
+    private static final long[] totalAgeMs = new long[N];
+    private static final long[] maxAgeMs = new long[N];
+
+    private CachePolicy() {
+    }
+
+    /** True if a copy saved at {@code updatedAt} is past its TTL; an unknown time (0) counts as stale. */
+    public static boolean isStale(Dataset dataset, long updatedAt) {
+        return updatedAt <= 0 || System.currentTimeMillis() - updatedAt > dataset.ttlMs;
+    }
+
+    /** Records that a cached copy saved at {@code updatedAt} was shown; returns true if it should be revalidated. */
+    public static boolean onCacheShown(Dataset dataset, long updatedAt) {
+        boolean isStale = isStale(dataset, updatedAt);
+        int i = dataset.ordinal();
+        synchronized (shown) {
+            shown[i]++;
+            if (isStale) stale[i]++;
+            if (updatedAt > 0) {
+                long age = Math.max(0, System.currentTimeMillis() - updatedAt);
+                aged[i]++;
+                totalAgeMs[i] += age;
+                if (age > maxAgeMs[i]) maxAgeMs[i] = age;
+            }
+        }
+        return isStale;
+    }
+
+    /**
+     * Display-time cache ages since process start, for datasets shown at least once. Copies with an
+     * unknown save time count as shown and stale but are left out of the age figures.
+     */
+    public static Map<Dataset, AgeStats> getStats() {
+        Map<Dataset, AgeStats> out = new EnumMap<>(Dataset.class);
+        synchronized (shown) {
+            for (Dataset d : Dataset.values()) {
+                int i = d.ordinal();
+                if (shown[i] == 0) continue;
+                out.put(d, new AgeStats(shown[i], stale[i], aged[i] == 0 ? 0 : totalAgeMs[i] / aged[i], maxAgeMs[i]));
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,174 @@
+package com.siva.homeofveltech.Storage;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.siva.homeofveltech.Model.PeriodAttendanceItem;
+import com.siva.homeofveltech.Model.SemesterResult;
+import com.siva.homeofveltech.Model.StudentDashboardData;
+import com.siva.homeofveltech.Model.SubjectAttendanceItem;
+import com.siva.homeofveltech.Model.TimetableItem;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Process-wide cache of decoded models in front of the JSON caches in {@link PrefsManager}, so
+ * opening a screen whose data another screen already decoded costs no prefs read and no Gson pass.
+ * At most {@link #MAX_ENTRIES} models are kept (least recently used goes first).
+ *
+ * {@link #write} keeps the model, notifies the key's observers and then writes it through to prefs,
+ * all on the calling thread: screens observe their key and get background refreshes as they land.
+ * Models handed out are shared; treat them as read-only.
+ */
+public final class ModelCache {
+
+    static final int MAX_ENTRIES = 24;
+
+    /** One cached dataset: its name, Gson type and where its JSON lives in prefs. */
+    public static final class Key<T> {
+        final String name;
+        final Type type;
+        final Function<PrefsManager, String> json;
+
+        Key(String name, Type type, Function<PrefsManager, String> json) {
+            this.name = name;
+            this.type = type;
+            this.json = json;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public static final Key<StudentDashboardData> DASHBOARD =
+            new Key<>("dashboard", StudentDashboardData.class, PrefsManager::getDashboardCache);
+    public static final Key<List<SubjectAttendanceItem>> ATTENDANCE =
+            new Key<>("attendance", new TypeToken<List<SubjectAttendanceItem>>() {}.getType(), PrefsManager::getAttendanceCache);
+    public static final Key<List<SemesterResult>> RESULTS =
+            new Key<>("results", new TypeToken<List<SemesterResult>>() {}.getType(), PrefsManager::getResultsCacheJson);
+    public static final Key<Map<String, List<TimetableItem>>> TIMETABLE =
+            new Key<>("timetable", new TypeToken<Map<String, List<TimetableItem>>>() {}.getType(), PrefsManager::getTimetableCache);
+
+    private static final Type PERIODS_TYPE = new TypeToken<List<PeriodAttendanceItem>>() {}.getType();
+
+    public static Key<List<PeriodAttendanceItem>> subjectAttendance(String subjectCode, String subjectName) {
+        return new Key<>("subjectAttendance:" + PrefsManager.subjectKeySuffix(subjectCode, subjectName), PERIODS_TYPE,
+                p -> p.getSubjectFullAttendanceCache(subjectCode, subjectName));
+    }
+
+    public interface Observer<T> {
+        /** Runs on the writing thread; post to the main thread before touching views. */
+        void onChanged(T model);
+    }
+
+    public interface Persister {
+        void save(String json);
+    }
+
+    /** Handle for an {@link #observe} call; closing it stops the updates. */
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final ModelCache INSTANCE = new ModelCache();
+
+    public static ModelCache get() {
+        return INSTANCE;
+    }
+
+    private final Gson gson = new Gson();
+    private final Map<String, Object> models = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, List<Observer<?>>> observers = new ConcurrentHashMap<>();
+    private int hits, decodes, writes; // guarded by models
+
+    private ModelCache() {
+    }
+
+    /** The model for {@code key}: from memory, else decoded from prefs. Null if nothing (readable) is stored. */
+    @SuppressWarnings("unchecked")
+    public <T> T read(PrefsManager prefs, Key<T> key) {
+        synchronized (models) {
+            T cached = (T) models.get(key.name);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+        }
+
+        String json = key.json.apply(prefs);
+        if (json == null || json.trim().isEmpty()) return null;
+        T decoded;
+        try {
+            decoded = gson.fromJson(json, key.type);
+        } catch (RuntimeException e) {
+            return null; // corrupt cache: callers fall back to a fetch
+        }
+        if (decoded == null) return null;
+
+        synchronized (models) {
+            decodes++;
+            // a write that landed while decoding wins over the older prefs copy
+            T raced = (T) models.get(key.name);
+            if (raced != null) return raced;
+            models.put(key.name, decoded);
+        }
+        return decoded;
+    }
+
+    /** Keeps {@code model}, notifies observers, then hands its JSON to {@code persist}. */
+    public <T> void write(Key<T> key, T model, Persister persist) {
+        if (model == null) return;
+        synchronized (models) {
+            writes++;
+            models.put(key.name, model);
+        }
+        notifyObservers(key, model);
+        persist.save(gson.toJson(model, key.type));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void notifyObservers(Key<T> key, T model) {
+        List<Observer<?>> list = observers.get(key.name);
+        if (list == null) return;
+        for (Observer<?> o : list) {
+            try {
+                ((Observer<T>) o).onChanged(model);
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    public <T> Registration observe(Key<T> key, Observer<T> observer) {
+        List<Observer<?>> list = observers.computeIfAbsent(key.name, k -> new CopyOnWriteArrayList<>());
+        list.add(observer);
+        return () -> list.remove(observer);
+    }
+
+    /** Drops every decoded model (logout); observers stay registered. */
+    public void clear() {
+        synchronized (models) {
+            models.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (models) {
+            return "modelCache{entries=" + models.size() + ", hits=" + hits + ", decodes=" + decodes
+                    + ", writes=" + writes + "}";
+        }
+    }
+}
@@ -2,12 +2,25 @@ package com.siva.homeofveltech.Storage;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.security.crypto.EncryptedSharedPreferences;
 import androidx.security.crypto.MasterKey;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
-
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encrypted app preferences. Opening them builds the keystore MasterKey and the Tink keysets
+ * (tens to hundreds of ms on a cold start), so there is one instance per process:
+ * {@link #warmUp} starts it on a background thread at app start, {@link #whenReady} hands it to the
+ * main thread without blocking, and {@link #getInstance} returns it (waiting for the warm-up if it
+ * is still running). Waits on the main thread are counted in {@link #getInitStats}.
+ */
 public class PrefsManager {
 
     private static final String FILE = "home_of_veltech_secure";
@@ -22,6 +35,7 @@ public class PrefsManager {
     private static final String KEY_RESULTS_JSON = "results_json";
     private static final String KEY_RESULTS_UPDATED_AT = "results_updated_at";
     private static final String KEY_RESULTS_CGPA = "results_overall_cgpa";
+    private static final String KEY_RESULTS_SYNC_JSON = "results_sync_json";
 
     // ✅ Dashboard data cache
     private static final String KEY_DASHBOARD_JSON = "dashboard_json";
@@ -30,14 +44,136 @@ public class PrefsManager {
     // ✅ Attendance cache
     private static final String KEY_ATTENDANCE_JSON = "attendance_json";
     private static final String KEY_ATTENDANCE_UPDATED_AT = "attendance_updated_at";
+    private static final String KEY_ATTENDANCE_SYNC_JSON = "attendance_sync_json";
 
     // ✅ Timetable cache
     private static final String KEY_TIMETABLE_JSON = "timetable_json";
     private static final String KEY_TIMETABLE_UPDATED_AT = "timetable_updated_at";
 
+    // ✅ AMS session cookies (survive process death)
+    private static final String KEY_COOKIES_JSON = "cookies_json";
+
+    // ✅ Resolved AMS addresses (cold-start DNS cache)
+    private static final String KEY_DNS_CACHE_JSON = "dns_cache_json";
+
+    // ✅ Random per-install id (background refresh slot); survives logout
+    private static final String KEY_INSTALL_ID = "install_id";
+
+    // -------------------- Process-wide instance --------------------
+
+    public interface ReadyCallback {
+        void onReady(PrefsManager prefs);
+    }
+
+    /** How long opening the prefs took and how much of that the main thread had to wait for. */
+    public static final class InitStats {
+        public final long initMs;
+        public final String initThread;
+        public final int mainThreadWaits;
+        public final long mainThreadWaitMs;
+
+        InitStats(long initMs, String initThread, int mainThreadWaits, long mainThreadWaitMs) {
+            this.initMs = initMs;
+            this.initThread = initThread;
+            this.mainThreadWaits = mainThreadWaits;
+            this.mainThreadWaitMs = mainThreadWaitMs;
+        }
+
+        @Override
+        public String toString() {
+            return "prefsInit=" + initMs + "ms on " + initThread + ", mainThreadWaits=" + mainThreadWaits
+                    + " (" + mainThreadWaitMs + "ms)";
+        }
+    }
+
+    private static final Object INIT_LOCK = new Object();
+    private static final List<ReadyCallback> pending = new ArrayList<>(); // guarded by itself
+    private static volatile PrefsManager instance;
+    // guarded by pending
+    private static boolean warming;
+    private static long initNanos;
+    private static String initThread = "-";
+    private static int mainThreadWaits;
+    private static long mainThreadWaitNanos;
+
+    /** Starts opening the prefs on a background thread; no-op once started. Call from Application.onCreate. */
+    public static void warmUp(Context ctx) {
+        Context app = ctx.getApplicationContext();
+        synchronized (pending) {
+            if (instance != null || warming) return;
+            warming = true;
+        }
+        Thread t = new Thread(() -> getInstance(app), "prefs-init");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** The shared instance; blocks while it is being opened, so prefer {@link #whenReady} on the main thread. */
+    public static PrefsManager getInstance(Context ctx) {
+        PrefsManager p = instance;
+        if (p != null) return p;
+
+        boolean created = false;
+        long start = System.nanoTime();
+        synchronized (INIT_LOCK) {
+            if (instance == null) {
+                instance = new PrefsManager(ctx.getApplicationContext());
+                created = true;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        synchronized (pending) {
+            if (created) {
+                initNanos = elapsed;
+                initThread = Thread.currentThread().getName();
+            }
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mainThreadWaits++;
+                mainThreadWaitNanos += elapsed;
+            }
+        }
+        dispatchPending();
+        return instance;
+    }
+
+    /**
+     * Runs {@code callback} with the shared instance: right away on the calling thread if it is open,
+     * otherwise posted to the main thread once the warm-up finishes (starting it if needed). Never
+     * blocks the caller; call it from the main thread so the callback always runs there.
+     */
+    public static void whenReady(Context ctx, ReadyCallback callback) {
+        boolean queued;
+        synchronized (pending) {
+            // instance is published before dispatchPending takes this lock, so a queued callback is never missed
+            queued = instance == null;
+            if (queued) pending.add(callback);
+        }
+        if (queued) warmUp(ctx);
+        else callback.onReady(instance);
+    }
+
+    public static InitStats getInitStats() {
+        synchronized (pending) {
+            return new InitStats(TimeUnit.NANOSECONDS.toMillis(initNanos), initThread,
+                    mainThreadWaits, TimeUnit.NANOSECONDS.toMillis(mainThreadWaitNanos));
+        }
+    }
+
+    private static void dispatchPending() {
+        List<ReadyCallback> ready;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            ready = new ArrayList<>(pending);
+            pending.clear();
+        }
+        Handler main = new Handler(Looper.getMainLooper());
+        PrefsManager p = instance;
+        for (ReadyCallback cb : ready) main.post(() -> cb.onReady(p));
+    }
+
     private final SharedPreferences sp;
 
-    public PrefsManager(Context ctx) {
+    private PrefsManager(Context ctx) {
         SharedPreferences temp;
         try {
             MasterKey masterKey = new MasterKey.Builder(ctx)
@@ -126,11 +262,49 @@ public class PrefsManager {
                 .remove(KEY_RESULTS_JSON)
                 .remove(KEY_RESULTS_UPDATED_AT)
                 .remove(KEY_RESULTS_CGPA)
+                .remove(KEY_RESULTS_SYNC_JSON)
                 .apply();
     }
 
+    // Per-period results sync state (which YoPList periods are already fetched)
+    public void saveResultsSyncState(String syncJson) {
+        sp.edit().putString(KEY_RESULTS_SYNC_JSON, syncJson == null ? "" : syncJson).apply();
+    }
+
+    public String getResultsSyncState() {
+        return sp.getString(KEY_RESULTS_SYNC_JSON, "");
+    }
+
     public void clearAll() {
-        sp.edit().clear().apply();
+        String installId = sp.getString(KEY_INSTALL_ID, "");
+        // Editor applies clear() before the puts, so the install id is kept
+        sp.edit().clear().putString(KEY_INSTALL_ID, installId).apply();
+    }
+
+    public synchronized String getInstallId() {
+        String id = sp.getString(KEY_INSTALL_ID, "");
+        if (id.isEmpty()) {
+            id = UUID.randomUUID().toString();
+            sp.edit().putString(KEY_INSTALL_ID, id).apply();
+        }
+        return id;
+    }
+
+    // ✅ Cookie jar
+    public void saveCookies(String cookiesJson) {
+        sp.edit().putString(KEY_COOKIES_JSON, cookiesJson == null ? "" : cookiesJson).apply();
+    }
+
+    public String getCookies() {
+        return sp.getString(KEY_COOKIES_JSON, "");
+    }
+
+    public void saveDnsCache(String dnsJson) {
+        sp.edit().putString(KEY_DNS_CACHE_JSON, dnsJson == null ? "" : dnsJson).apply();
+    }
+
+    public String getDnsCache() {
+        return sp.getString(KEY_DNS_CACHE_JSON, "");
     }
 
     // ✅ Dashboard cache
@@ -170,6 +344,14 @@ public class PrefsManager {
         return sp.getLong(KEY_ATTENDANCE_UPDATED_AT, 0L);
     }
 
+    public void saveAttendanceSyncState(String syncJson) {
+        sp.edit().putString(KEY_ATTENDANCE_SYNC_JSON, syncJson == null ? "" : syncJson).apply();
+    }
+
+    public String getAttendanceSyncState() {
+        return sp.getString(KEY_ATTENDANCE_SYNC_JSON, "");
+    }
+
     public boolean hasAttendanceCache() {
         String j = getAttendanceCache();
         return j != null && !j.trim().isEmpty();
@@ -198,15 +380,24 @@ public class PrefsManager {
 
     // Full attendance cache by subject
     public void saveSubjectFullAttendanceCache(String subjectCode, String subjectName, String periodsJson) {
-        String key = fullAttendanceKey(subjectCode, subjectName);
-        if (key.isEmpty()) return;
-        sp.edit().putString(key, periodsJson == null ? "" : periodsJson).apply();
+        String suffix = subjectKeySuffix(subjectCode, subjectName);
+        if (suffix.isEmpty()) return;
+        sp.edit()
+                .putString("full_attendance_json_" + suffix, periodsJson == null ? "" : periodsJson)
+                .putLong("full_attendance_updated_at_" + suffix, System.currentTimeMillis())
+                .apply();
+    }
+
+    public long getSubjectFullAttendanceUpdatedAt(String subjectCode, String subjectName) {
+        String suffix = subjectKeySuffix(subjectCode, subjectName);
+        if (suffix.isEmpty()) return 0L;
+        return sp.getLong("full_attendance_updated_at_" + suffix, 0L);
     }
 
     public String getSubjectFullAttendanceCache(String subjectCode, String subjectName) {
-        String key = fullAttendanceKey(subjectCode, subjectName);
-        if (key.isEmpty()) return "";
-        return sp.getString(key, "");
+        String suffix = subjectKeySuffix(subjectCode, subjectName);
+        if (suffix.isEmpty()) return "";
+        return sp.getString("full_attendance_json_" + suffix, "");
     }
 
     public boolean hasSubjectFullAttendanceCache(String subjectCode, String subjectName) {
@@ -214,7 +405,8 @@ public class PrefsManager {
         return json != null && !json.trim().isEmpty();
     }
 
-    private String fullAttendanceKey(String subjectCode, String subjectName) {
+    // Same subject, same key: trimmed code (or name), lower-cased, non-alphanumerics folded to "_"
+    static String subjectKeySuffix(String subjectCode, String subjectName) {
         String base = "";
         if (subjectCode != null && !subjectCode.trim().isEmpty()) {
             base = subjectCode.trim();
@@ -222,7 +414,6 @@ public class PrefsManager {
             base = subjectName.trim();
         }
         if (base.isEmpty()) return "";
-        String normalized = base.toLowerCase(Locale.US).replaceAll("[^a-z0-9]+", "_");
-        return "full_attendance_json_" + normalized;
+        return base.toLowerCase(Locale.US).replaceAll("[^a-z0-9]+", "_");
     }
 }
@@ -13,28 +13,27 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.facebook.shimmer.ShimmerFrameLayout;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.siva.homeofveltech.Adapter.SubjectAttendanceAdapter;
 import com.siva.homeofveltech.Model.SubjectAttendanceItem;
 import com.siva.homeofveltech.Network.AmsClient;
+import com.siva.homeofveltech.Network.AmsRepository;
 import com.siva.homeofveltech.R;
+import com.siva.homeofveltech.Storage.CachePolicy;
+import com.siva.homeofveltech.Storage.ModelCache;
 import com.siva.homeofveltech.Storage.PrefsManager;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class SubjectAttendanceActivity extends AppCompatActivity {
     private static final long MIN_SHIMMER_MS = 400L;
 
-    private final AmsClient amsClient = new AmsClient();
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AmsRepository repository = AmsRepository.getInstance();
+    private final TaskScheduler scheduler = TaskScheduler.get();
     private final Handler handler = new Handler(Looper.getMainLooper());
-    private final Gson gson = new Gson();
-    private final Type attendanceListType = new TypeToken<List<SubjectAttendanceItem>>() {}.getType();
+    private ModelCache.Registration attendanceUpdates;
 
     private PrefsManager prefs;
     private RecyclerView rv;
@@ -48,7 +47,6 @@ public class SubjectAttendanceActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_subject_attendance);
-        prefs = new PrefsManager(this);
 
         rv = findViewById(R.id.rvSubjectAttendance);
         rv.setLayoutManager(new LinearLayoutManager(this));
@@ -57,20 +55,30 @@ public class SubjectAttendanceActivity extends AppCompatActivity {
         tvEmpty = findViewById(R.id.tvEmpty);
         btnBack = findViewById(R.id.btnBack);
 
-        boolean showedCache = tryShowCachedAttendance();
-        if (!showedCache) {
-            setLoading(true);
-            fetchAndDisplayAttendance(false);
-        }
+        // Attendance written by any screen or background refresh (this one included) lands here
+        attendanceUpdates = ModelCache.get().observe(ModelCache.ATTENDANCE, list -> handler.post(() -> {
+            if (!isDestroyed()) renderAttendance(list);
+        }));
 
         btnBack.setOnClickListener(v -> onBackPressed());
+
+        // prefs open off the main thread at app start: render once they are ready
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+            boolean showedCache = tryShowCachedAttendance();
+            if (!showedCache) {
+                setLoading(true);
+                fetchAndDisplayAttendance(false);
+            } else if (CachePolicy.onCacheShown(CachePolicy.Dataset.ATTENDANCE, prefs.getAttendanceCacheUpdatedAt())) {
+                fetchAndDisplayAttendance(true); // stale: keep the cached list visible while refreshing
+            }
+        });
     }
 
     private boolean tryShowCachedAttendance() {
         try {
-            if (!prefs.hasAttendanceCache()) return false;
-            String json = prefs.getAttendanceCache();
-            List<SubjectAttendanceItem> cached = gson.fromJson(json, attendanceListType);
+            List<SubjectAttendanceItem> cached = ModelCache.get().read(prefs, ModelCache.ATTENDANCE);
             if (cached == null || cached.isEmpty()) return false;
             renderAttendance(cached);
             setLoading(false);
@@ -82,31 +90,28 @@ public class SubjectAttendanceActivity extends AppCompatActivity {
 
     private void fetchAndDisplayAttendance(boolean hasVisibleCache) {
 
-        executor.execute(() -> {
+        scheduler.submit(hasVisibleCache ? TaskScheduler.Lane.PREFETCH : TaskScheduler.Lane.USER_VISIBLE, this, () -> {
             try {
-                List<SubjectAttendanceItem> attendanceList = amsClient.fetchAttendanceData();
+                List<SubjectAttendanceItem> attendanceList = repository.fetchAttendanceData();
                 if (attendanceList == null) attendanceList = new ArrayList<>();
-                prefs.saveAttendanceCache(gson.toJson(attendanceList, attendanceListType));
-                List<SubjectAttendanceItem> finalAttendanceList = attendanceList;
+                // the attendance observer renders it
+                ModelCache.get().write(ModelCache.ATTENDANCE, attendanceList, prefs::saveAttendanceCache);
 
-                handler.post(() -> {
-                    renderAttendance(finalAttendanceList);
-                    if (!hasVisibleCache) setLoading(false);
-                });
+                if (!hasVisibleCache) handler.post(CancellationToken.current().guard(() -> setLoading(false)));
             } catch (AmsClient.SessionExpiredException e) {
-                handler.post(() -> {
+                handler.post(CancellationToken.current().guard(() -> {
                     if (!hasVisibleCache) setLoading(false);
                     if (!tryShowCachedAttendance()) {
                         showEmpty("No saved attendance data available.");
                     }
-                });
+                }));
             } catch (Exception e) {
-                handler.post(() -> {
+                handler.post(CancellationToken.current().guard(() -> {
                     if (!hasVisibleCache) setLoading(false);
                     if (!tryShowCachedAttendance()) {
                         showEmpty("No saved attendance data available.");
                     }
-                });
+                }));
             }
         });
     }
@@ -154,6 +159,7 @@ public class SubjectAttendanceActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        executor.shutdownNow();
+        attendanceUpdates.close();
+        scheduler.cancel(this);
     }
 }
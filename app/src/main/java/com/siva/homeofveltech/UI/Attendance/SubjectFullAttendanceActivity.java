@@ -12,28 +12,28 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.facebook.shimmer.ShimmerFrameLayout;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.siva.homeofveltech.Adapter.SubjectFullAttendanceAdapter;
 import com.siva.homeofveltech.Model.PeriodAttendanceItem;
 import com.siva.homeofveltech.Network.AmsClient;
+import com.siva.homeofveltech.Network.AmsRepository;
 import com.siva.homeofveltech.R;
+import com.siva.homeofveltech.Storage.CachePolicy;
+import com.siva.homeofveltech.Storage.ModelCache;
 import com.siva.homeofveltech.Storage.PrefsManager;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class SubjectFullAttendanceActivity extends AppCompatActivity {
     private static final long MIN_SHIMMER_MS = 400L;
 
-    private final AmsClient amsClient = new AmsClient();
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AmsRepository repository = AmsRepository.getInstance();
+    private final TaskScheduler scheduler = TaskScheduler.get();
     private final Handler handler = new Handler(Looper.getMainLooper());
-    private final Gson gson = new Gson();
-    private final Type fullAttendanceType = new TypeToken<List<PeriodAttendanceItem>>() {}.getType();
+    private ModelCache.Key<List<PeriodAttendanceItem>> cacheKey;
+    private ModelCache.Registration periodUpdates;
 
     private PrefsManager prefs;
     private RecyclerView rv;
@@ -49,7 +49,6 @@ public class SubjectFullAttendanceActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_subject_full_attendance);
-        prefs = new PrefsManager(this);
 
         // Get data from intent
         subjectName = getIntent().getStringExtra("subjectName");
@@ -71,20 +70,32 @@ public class SubjectFullAttendanceActivity extends AppCompatActivity {
         tvEmpty = findViewById(R.id.tvEmpty);
         btnBack = findViewById(R.id.btnBack);
 
-        boolean showedCache = tryShowCachedFullAttendance();
-        if (!showedCache) {
-            setLoading(true);
-            fetchSubjectAttendance(false);
-        }
+        // This subject's history, written by any screen or background refresh (this one included)
+        cacheKey = ModelCache.subjectAttendance(subjectCode, subjectName);
+        periodUpdates = ModelCache.get().observe(cacheKey, periods -> handler.post(() -> {
+            if (!isDestroyed()) renderData(periods);
+        }));
 
         btnBack.setOnClickListener(v -> onBackPressed());
+
+        // prefs open off the main thread at app start: render once they are ready
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+            boolean showedCache = tryShowCachedFullAttendance();
+            if (!showedCache) {
+                setLoading(true);
+                fetchSubjectAttendance(false);
+            } else if (CachePolicy.onCacheShown(CachePolicy.Dataset.SUBJECT_ATTENDANCE,
+                    prefs.getSubjectFullAttendanceUpdatedAt(subjectCode, subjectName))) {
+                fetchSubjectAttendance(true); // stale: keep the cached periods visible while refreshing
+            }
+        });
     }
 
     private boolean tryShowCachedFullAttendance() {
         try {
-            if (!prefs.hasSubjectFullAttendanceCache(subjectCode, subjectName)) return false;
-            String json = prefs.getSubjectFullAttendanceCache(subjectCode, subjectName);
-            List<PeriodAttendanceItem> cached = gson.fromJson(json, fullAttendanceType);
+            List<PeriodAttendanceItem> cached = ModelCache.get().read(prefs, cacheKey);
             if (cached == null || cached.isEmpty()) return false;
             renderData(cached);
             setLoading(false);
@@ -96,35 +107,33 @@ public class SubjectFullAttendanceActivity extends AppCompatActivity {
 
     private void fetchSubjectAttendance(boolean hasVisibleCache) {
 
-        executor.execute(() -> {
+        scheduler.submit(hasVisibleCache ? TaskScheduler.Lane.PREFETCH : TaskScheduler.Lane.USER_VISIBLE, this, () -> {
             try {
                 // Fetch the detailed attendance for this subject
-                List<PeriodAttendanceItem> periods = amsClient.fetchSubjectFullAttendance(
+                List<PeriodAttendanceItem> periods = repository.fetchSubjectFullAttendance(
                         subjectCode,
                         subjectName
                 );
                 if (periods == null) periods = new ArrayList<>();
-                prefs.saveSubjectFullAttendanceCache(subjectCode, subjectName, gson.toJson(periods, fullAttendanceType));
-                List<PeriodAttendanceItem> finalPeriods = periods;
+                // the subject observer renders it
+                ModelCache.get().write(cacheKey, periods,
+                        json -> prefs.saveSubjectFullAttendanceCache(subjectCode, subjectName, json));
 
-                handler.post(() -> {
-                    renderData(finalPeriods);
-                    if (!hasVisibleCache) setLoading(false);
-                });
+                if (!hasVisibleCache) handler.post(CancellationToken.current().guard(() -> setLoading(false)));
             } catch (AmsClient.SessionExpiredException e) {
-                handler.post(() -> {
+                handler.post(CancellationToken.current().guard(() -> {
                     if (!hasVisibleCache) setLoading(false);
                     if (!tryShowCachedFullAttendance()) {
                         showEmpty("No saved attendance data available for this subject.");
                     }
-                });
+                }));
             } catch (Exception e) {
-                handler.post(() -> {
+                handler.post(CancellationToken.current().guard(() -> {
                     if (!hasVisibleCache) setLoading(false);
                     if (!tryShowCachedFullAttendance()) {
                         showEmpty("No saved attendance data available for this subject.");
                     }
-                });
+                }));
             }
         });
     }
@@ -165,6 +174,7 @@ public class SubjectFullAttendanceActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        executor.shutdownNow();
+        periodUpdates.close();
+        scheduler.cancel(this);
     }
 }
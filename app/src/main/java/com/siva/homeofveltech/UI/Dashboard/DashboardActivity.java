@@ -13,6 +13,7 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.facebook.shimmer.ShimmerFrameLayout;
+import com.siva.homeofveltech.Network.SessionTracker;
 import com.siva.homeofveltech.R;
 import com.siva.homeofveltech.Storage.PrefsManager;
 import com.siva.homeofveltech.UI.Dialog.SessionRefreshDialog;
@@ -62,9 +63,6 @@ public class DashboardActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_dashboard);
 
-        // Initialize SharedPreferences manager
-        prefs = new PrefsManager(this);
-
         // Find and assign all UI elements from the layout
         txtGreeting = findViewById(R.id.tvGreeting);
         txtStudentName = findViewById(R.id.tvStudentName);
@@ -80,13 +78,19 @@ public class DashboardActivity extends AppCompatActivity {
         // Set a simple greeting message
         if (txtGreeting != null)
             txtGreeting.setText("Welcome");
-        String studentName = prefs.getStudentName();
-        String username = prefs.getUsername();
-        String displayName = !TextUtils.isEmpty(studentName)
-                ? studentName
-                : (!TextUtils.isEmpty(username) ? username : "Student");
-        if (txtStudentName != null)
-            txtStudentName.setText(displayName);
+
+        // SharedPreferences manager: opened off the main thread at app start
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+            String studentName = prefs.getStudentName();
+            String username = prefs.getUsername();
+            String displayName = !TextUtils.isEmpty(studentName)
+                    ? studentName
+                    : (!TextUtils.isEmpty(username) ? username : "Student");
+            if (txtStudentName != null)
+                txtStudentName.setText(displayName);
+        });
 
         // Set up the click listener for the academic details card
         if (cardAttendance != null) {
@@ -134,6 +138,12 @@ public class DashboardActivity extends AppCompatActivity {
     }
 
     private void showRefreshDialog() {
+        // a response just proved the session alive: nothing to re-login for
+        if (SessionTracker.getInstance().isKnownGood()) {
+            Toast.makeText(this, "Session is active ✅", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
         SessionRefreshDialog dialog = new SessionRefreshDialog();
         dialog.setCallback(new SessionRefreshDialog.RefreshCallback() {
             @Override
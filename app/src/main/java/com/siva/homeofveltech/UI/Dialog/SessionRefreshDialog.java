@@ -16,12 +16,13 @@ import androidx.fragment.app.DialogFragment;
 
 import com.google.android.material.button.MaterialButton;
 import com.siva.homeofveltech.Network.AmsClient;
+import com.siva.homeofveltech.Network.AmsRepository;
 import com.siva.homeofveltech.R;
 import com.siva.homeofveltech.Storage.PrefsManager;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Dialog for refreshing user session with captcha verification.
@@ -35,9 +36,10 @@ public class SessionRefreshDialog extends DialogFragment {
     private MaterialButton btnRefresh;
     private View progressOverlay;
 
-    private AmsClient dialogAmsClient; // Separate instance to avoid session interference
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AmsClient dialogAmsClient = AmsRepository.getInstance().getClient(); // thread-safe, shared
+    private final TaskScheduler scheduler = TaskScheduler.get();
     private PrefsManager prefs;
+    private boolean loading;
     private Map<String, String> hiddenFields;
 
     private RefreshCallback callback;
@@ -59,9 +61,11 @@ public class SessionRefreshDialog extends DialogFragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setStyle(DialogFragment.STYLE_NORMAL, R.style.DialogTheme);
-        prefs = new PrefsManager(requireContext());
-        // Create separate AmsClient instance to avoid interfering with parent session
-        dialogAmsClient = new AmsClient();
+        // opened off the main thread at app start; Refresh stays disabled until then
+        PrefsManager.whenReady(requireContext(), p -> {
+            prefs = p;
+            setLoading(loading);
+        });
     }
 
     @Nullable
@@ -102,27 +106,27 @@ public class SessionRefreshDialog extends DialogFragment {
 
     private void fetchCaptcha() {
         setLoading(true);
-        executor.execute(() -> {
+        scheduler.submit(TaskScheduler.Lane.USER_VISIBLE, this, () -> {
             try {
-                // Use separate AmsClient to fetch captcha without affecting parent session
+                // Login-page hidden fields stay in this dialog; the shared client keeps no per-flow state
                 AmsClient.LoginPageData pageData = dialogAmsClient.fetchLoginPage();
                 hiddenFields = pageData.hiddenFields;
 
                 if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
+                    getActivity().runOnUiThread(CancellationToken.current().guard(() -> {
                         ivCaptcha.setImageBitmap(BitmapFactory.decodeByteArray(
                                 pageData.captchaImage, 0, pageData.captchaImage.length));
                         etCaptcha.setText("");
                         setLoading(false);
-                    });
+                    }));
                 }
             } catch (Exception e) {
                 if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
+                    getActivity().runOnUiThread(CancellationToken.current().guard(() -> {
                         Toast.makeText(getContext(), "Failed to load captcha: " + e.getMessage(),
                                 Toast.LENGTH_SHORT).show();
                         setLoading(false);
-                    });
+                    }));
                 }
             }
         });
@@ -150,13 +154,13 @@ public class SessionRefreshDialog extends DialogFragment {
 
         setLoading(true);
 
-        executor.execute(() -> {
+        scheduler.submit(TaskScheduler.Lane.USER_VISIBLE, this, () -> {
             try {
                 // Use dialog's AmsClient for login
                 boolean success = dialogAmsClient.login(username, password, captcha, hiddenFields);
 
                 if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
+                    getActivity().runOnUiThread(CancellationToken.current().guard(() -> {
                         setLoading(false);
 
                         if (success) {
@@ -169,29 +173,31 @@ public class SessionRefreshDialog extends DialogFragment {
                                     Toast.LENGTH_LONG).show();
                             fetchCaptcha(); // Refresh captcha on failure
                         }
-                    });
+                    }));
                 }
             } catch (Exception e) {
                 if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
+                    getActivity().runOnUiThread(CancellationToken.current().guard(() -> {
                         setLoading(false);
                         if (callback != null) {
                             callback.onRefreshFailed("Failed: " + e.getMessage());
                         }
                         fetchCaptcha(); // Refresh captcha on error
-                    });
+                    }));
                 }
             }
         });
     }
 
     private void setLoading(boolean loading) {
+        this.loading = loading;
         if (progressOverlay != null) {
             progressOverlay.setVisibility(loading ? View.VISIBLE : View.GONE);
         }
         if (btnRefresh != null) {
-            btnRefresh.setEnabled(!loading);
-            btnRefresh.setAlpha(loading ? 0.6f : 1f);
+            boolean canSubmit = !loading && prefs != null; // credentials come from prefs
+            btnRefresh.setEnabled(canSubmit);
+            btnRefresh.setAlpha(canSubmit ? 1f : 0.6f);
         }
         if (etCaptcha != null) {
             etCaptcha.setEnabled(!loading);
@@ -204,6 +210,6 @@ public class SessionRefreshDialog extends DialogFragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        executor.shutdownNow();
+        scheduler.cancel(this);
     }
 }
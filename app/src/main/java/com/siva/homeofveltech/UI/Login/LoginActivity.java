@@ -16,32 +16,42 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.button.MaterialButton;
 import com.siva.homeofveltech.Model.StudentProfile;
 import com.siva.homeofveltech.Model.StudentDashboardData;
-import com.siva.homeofveltech.Model.SubjectAttendanceItem;
 import com.siva.homeofveltech.Model.SemesterResult;
-import com.siva.homeofveltech.Model.PeriodAttendanceItem;
 import com.siva.homeofveltech.Network.AmsClient;
+import com.siva.homeofveltech.Network.AmsRepository;
+import com.siva.homeofveltech.Network.AttendancePageSnapshot;
+import com.siva.homeofveltech.Network.AttendanceSyncState;
+import com.siva.homeofveltech.Network.OkHttpProvider;
+import com.siva.homeofveltech.Network.ResultsSyncState;
 import com.siva.homeofveltech.R;
+import com.siva.homeofveltech.Storage.ModelCache;
 import com.siva.homeofveltech.Storage.PrefsManager;
 import com.siva.homeofveltech.UI.Dashboard.DashboardActivity;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.Diagnostics;
+import com.siva.homeofveltech.Utils.Pipeline;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
-import com.google.gson.Gson;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class LoginActivity extends AppCompatActivity {
 
+    private static final String TAG = "LoginActivity";
+    private static final String PREFETCH_TAG = "login-prefetch";
+
     private EditText etUsername, etPassword, etCaptcha;
     private ImageView ivEyeIcon, ivCaptcha, ivRefreshCaptcha;
     private MaterialButton btnLogin;
 
     private boolean isPasswordVisible = false;
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
-    private final AmsClient amsClient = new AmsClient();
+    private final TaskScheduler scheduler = TaskScheduler.get();
+    private final AmsRepository repository = AmsRepository.getInstance();
+    private final AmsClient amsClient = repository.getClient();
 
     private PrefsManager prefs;
+    private boolean loading;
     private Map<String, String> hiddenFields;
 
     @Override
@@ -49,8 +59,6 @@ public class LoginActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
 
-        prefs = new PrefsManager(this);
-
         etUsername = findViewById(R.id.etUsername);
         etPassword = findViewById(R.id.etPassword);
         etCaptcha = findViewById(R.id.etCaptcha);
@@ -59,10 +67,17 @@ public class LoginActivity extends AppCompatActivity {
         ivRefreshCaptcha = findViewById(R.id.ivRefreshCaptcha);
         btnLogin = findViewById(R.id.btnLogin);
 
-        if (prefs.hasCredentials()) {
-            etUsername.setText(prefs.getUsername());
-            etPassword.setText(prefs.getPassword());
-        }
+        // prefs open off the main thread at app start: prefill and enable Log In once they are ready
+        setLoading(false);
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+            setLoading(loading);
+            if (prefs.hasCredentials()) {
+                etUsername.setText(prefs.getUsername());
+                etPassword.setText(prefs.getPassword());
+            }
+        });
 
         ivEyeIcon.setOnClickListener(v -> togglePasswordVisibility());
         ivRefreshCaptcha.setOnClickListener(v -> fetchCaptcha());
@@ -92,7 +107,7 @@ public class LoginActivity extends AppCompatActivity {
 
             setLoading(true);
 
-            executor.execute(() -> {
+            scheduler.submit(TaskScheduler.Lane.USER_VISIBLE, this, () -> {
                 try {
                     boolean ok = amsClient.login(username, password, captcha, hiddenFields);
 
@@ -106,7 +121,7 @@ public class LoginActivity extends AppCompatActivity {
 
                     StudentProfile finalProfile = profile;
 
-                    runOnUiThread(() -> {
+                    runOnUiThread(CancellationToken.current().guard(() -> {
                         if (ok) {
                             prefs.saveCredentials(username, password);
                             prefs.saveStudentProfile(finalProfile.studentName, finalProfile.branch);
@@ -125,14 +140,14 @@ public class LoginActivity extends AppCompatActivity {
                             Toast.makeText(this, "Invalid Credentials or Captcha", Toast.LENGTH_LONG).show();
                             fetchCaptcha(); // Refresh captcha on failure
                         }
-                    });
+                    }));
 
                 } catch (Exception e) {
-                    runOnUiThread(() -> {
+                    runOnUiThread(CancellationToken.current().guard(() -> {
                         setLoading(false);
                         Toast.makeText(this, "Server error: " + e.getMessage(), Toast.LENGTH_LONG).show();
                         fetchCaptcha(); // Refresh captcha on error
-                    });
+                    }));
                 }
             });
         });
@@ -142,21 +157,21 @@ public class LoginActivity extends AppCompatActivity {
 
     private void fetchCaptcha() {
         setLoading(true);
-        executor.execute(() -> {
+        scheduler.submit(TaskScheduler.Lane.USER_VISIBLE, this, () -> {
             try {
                 AmsClient.LoginPageData pageData = amsClient.fetchLoginPage();
                 hiddenFields = pageData.hiddenFields;
-                runOnUiThread(() -> {
+                runOnUiThread(CancellationToken.current().guard(() -> {
                     ivCaptcha.setImageBitmap(
                             BitmapFactory.decodeByteArray(pageData.captchaImage, 0, pageData.captchaImage.length));
                     etCaptcha.setText("");
                     setLoading(false);
-                });
+                }));
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                runOnUiThread(CancellationToken.current().guard(() -> {
                     Toast.makeText(this, "Failed to load captcha: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     setLoading(false);
-                });
+                }));
             }
         });
     }
@@ -177,8 +192,10 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void setLoading(boolean loading) {
-        btnLogin.setEnabled(!loading);
-        btnLogin.setAlpha(loading ? 0.75f : 1f);
+        this.loading = loading;
+        boolean canSubmit = !loading && prefs != null; // nowhere to save the login until prefs are open
+        btnLogin.setEnabled(canSubmit);
+        btnLogin.setAlpha(canSubmit ? 1f : 0.75f);
         btnLogin.setText(loading ? "Logging in..." : "Log In");
 
         etUsername.setEnabled(!loading);
@@ -203,72 +220,90 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        executor.shutdownNow();
+        scheduler.cancel(this);
     }
 
     /**
      * Fetch all user data and cache it for instant loading
-     * Runs in detached background thread and does not block navigation
+     * Runs on the prefetch lane, untied from this activity so it outlives navigation,
+     * after this install's refresh slot so a wave of logins does not crawl AMS at once
      */
     private void startBackgroundPrefetch() {
-        Thread t = new Thread(this::fetchAndCacheAllData, "login-prefetch-thread");
-        t.setDaemon(true);
-        t.start();
+        scheduler.submitAfter(TaskScheduler.Lane.PREFETCH, PREFETCH_TAG,
+                OkHttpProvider.getRefreshThrottle().backgroundDelayMs(), this::fetchAndCacheAllData);
     }
 
+    /** Fetch → parse → persist pipeline: AMS requests here, Gson + prefs writes on the persist stage. */
     private void fetchAndCacheAllData() {
-        Gson gson = new Gson();
+        ModelCache cache = ModelCache.get();
+        ResultsSyncState resultsState = ResultsSyncState.fromJson(prefs.getResultsSyncState());
+        AttendancePageSnapshot page = null;
         try {
-            // Fetch dashboard data
-            StudentDashboardData dashboardData = amsClient.fetchStudentDashboardData();
-            String dashboardJson = gson.toJson(dashboardData);
-            prefs.saveDashboardCache(dashboardJson);
-            prefs.saveTimetableCache(gson.toJson(dashboardData.weekTimetable));
-            prefs.saveStudentProfile(dashboardData.studentName, dashboardData.branch);
+            // One Attendance.aspx load shared by dashboard, attendance and per-subject postbacks
+            page = repository.fetchAttendancePage();
         } catch (Exception ignored) {
             // keep going to cache whatever else is available
         }
 
+        Pipeline pipeline = new Pipeline("login-prefetch", 8);
+        List<SemesterResult> resultsData = null;
         try {
-            // Fetch attendance data
-            List<SubjectAttendanceItem> attendanceData = amsClient.fetchAttendanceData();
-            String attendanceJson = gson.toJson(attendanceData);
-            prefs.saveAttendanceCache(attendanceJson);
-
-            // Fetch full attendance for all subjects and cache by subject
-            if (attendanceData != null) {
-                for (SubjectAttendanceItem subject : attendanceData) {
-                    if (subject == null) continue;
-                    try {
-                        List<PeriodAttendanceItem> periods = amsClient.fetchSubjectFullAttendance(
-                                subject.subjectCode,
-                                subject.subjectName
-                        );
-                        prefs.saveSubjectFullAttendanceCache(
-                                subject.subjectCode,
-                                subject.subjectName,
-                                gson.toJson(periods)
-                        );
-                    } catch (Exception ignored) {
-                        // continue with other subjects
+            if (page != null) {
+                try {
+                    // Fetch dashboard data
+                    StudentDashboardData dashboardData = repository.fetchStudentDashboardData(page, resultsState);
+                    pipeline.persist(resultsState.toJson(), prefs::saveResultsSyncState); // serialized here: the fetch stage keeps mutating it
+                    resultsData = dashboardData.semesterResults; // synced along with the dashboard
+                    pipeline.persist(dashboardData, d -> {
+                        cache.write(ModelCache.DASHBOARD, d, prefs::saveDashboardCache);
+                        cache.write(ModelCache.TIMETABLE, d.weekTimetable, prefs::saveTimetableCache);
+                        prefs.saveStudentProfile(d.studentName, d.branch);
+                    });
+                } catch (Exception ignored) {
+                    // keep going to cache whatever else is available
+                }
+
+                try {
+                    // Fetch attendance data
+                    pipeline.submit(page, AttendancePageSnapshot::getAttendanceItems,
+                            attendance -> cache.write(ModelCache.ATTENDANCE, attendance, prefs::saveAttendanceCache));
+
+                    // Sync per-subject attendance history (only open months after the first run) and cache by subject
+                    if (!page.getCourseOptions().isEmpty()) {
+                        AttendanceSyncState attendanceState = AttendanceSyncState.fromJson(prefs.getAttendanceSyncState());
+                        AmsClient.CrawlStats stats = repository.syncAttendanceHistory(page, attendanceState,
+                                (code, name, periods) -> pipeline.persist(periods,
+                                        p -> cache.write(ModelCache.subjectAttendance(code, name), p,
+                                                json -> prefs.saveSubjectFullAttendanceCache(code, name, json))));
+                        pipeline.persist(attendanceState.toJson(), prefs::saveAttendanceSyncState);
+                        Diagnostics.log(TAG, () -> "Attendance history sync: " + stats);
                     }
+                } catch (Exception ignored) {
+                    // keep going
                 }
             }
-        } catch (Exception ignored) {
-            // keep going
-        }
 
-        try {
-            // Fetch results data
-            List<SemesterResult> resultsData = amsClient.fetchAllSemesterResultsRegular();
-            double cgpa = 0.0;
-            if (!resultsData.isEmpty() && resultsData.get(resultsData.size() - 1).tgpa > 0) {
-                cgpa = resultsData.get(resultsData.size() - 1).tgpa;
+            try {
+                // Fetch results data, unless the dashboard fetch already synced them
+                if (resultsData == null) {
+                    resultsData = repository.syncSemesterResults(AmsClient.ResultType.REGULAR, resultsState);
+                    pipeline.persist(resultsState.toJson(), prefs::saveResultsSyncState);
+                }
+                double cgpa = 0.0;
+                if (!resultsData.isEmpty() && resultsData.get(resultsData.size() - 1).tgpa > 0) {
+                    cgpa = resultsData.get(resultsData.size() - 1).tgpa;
+                }
+                double finalCgpa = cgpa;
+                pipeline.persist(resultsData, r -> cache.write(ModelCache.RESULTS, r, json -> prefs.saveResultsCache(json, finalCgpa)));
+            } catch (Exception ignored) {
+                // keep going
             }
-            String resultsJson = gson.toJson(resultsData);
-            prefs.saveResultsCache(resultsJson, cgpa);
+
+            Pipeline.Timings timings = pipeline.finish();
+            Diagnostics.log(TAG, () -> "Prefetch pipeline: " + timings);
         } catch (Exception ignored) {
-            // keep going
+        } finally {
+            pipeline.abort();
         }
     }
 }
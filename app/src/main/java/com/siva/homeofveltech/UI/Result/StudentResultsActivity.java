@@ -24,20 +24,21 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.facebook.shimmer.ShimmerFrameLayout;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.siva.homeofveltech.Adapter.SemesterResultAdapter;
 import com.siva.homeofveltech.Model.SemesterResult;
 import com.siva.homeofveltech.Network.AmsClient;
+import com.siva.homeofveltech.Network.AmsRepository;
+import com.siva.homeofveltech.Network.ResultsSyncState;
 import com.siva.homeofveltech.R;
+import com.siva.homeofveltech.Storage.CachePolicy;
+import com.siva.homeofveltech.Storage.ModelCache;
 import com.siva.homeofveltech.Storage.PrefsManager;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class StudentResultsActivity extends AppCompatActivity {
     private static final long MIN_SHIMMER_MS = 400L;
@@ -51,22 +52,20 @@ public class StudentResultsActivity extends AppCompatActivity {
     private SemesterResultAdapter semesterAdapter;
 
     private PrefsManager prefs;
-    private AmsClient amsClient;
+    private AmsRepository repository;
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final TaskScheduler scheduler = TaskScheduler.get();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private long loadingStartMs = 0L;
 
-    private final Gson gson = new Gson();
-    private final Type listType = new TypeToken<List<SemesterResult>>(){}.getType();
+    private ModelCache.Registration resultsUpdates;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_student_results);
 
-        prefs = new PrefsManager(this);
-        amsClient = new AmsClient();
+        repository = AmsRepository.getInstance();
 
         shimmerLayout = findViewById(R.id.shimmer_layout);
         contentContainer = findViewById(R.id.content_container);
@@ -82,42 +81,54 @@ public class StudentResultsActivity extends AppCompatActivity {
         txtTitle.setText("Results");
 
         rvSemesters.setLayoutManager(new LinearLayoutManager(this));
-        semesterAdapter = new SemesterResultAdapter(new ArrayList<>(), prefs.isShowGrade());
+        semesterAdapter = new SemesterResultAdapter(new ArrayList<>(), false);
         rvSemesters.setAdapter(semesterAdapter);
 
-        btnInfo.setOnClickListener(v -> showCgpaInfoDialog());
-
-        // ✅ 1) Show cached instantly (if present)
-        boolean showedCache = tryShowCachedResults();
+        // Results written by any screen or background refresh (this one included) land here
+        resultsUpdates = ModelCache.get().observe(ModelCache.RESULTS, fresh -> mainHandler.post(() -> {
+            if (isDestroyed()) return;
+            semesterAdapter.setItems(fresh);
+            txtOverallCgpa.setText(String.format(Locale.US, "%.2f", computeOverallCgpa(fresh)));
+        }));
 
-        // ✅ 2) If no cache -> shimmer, else keep content visible and refresh silently
-        if (!showedCache) setLoading(true);
+        btnInfo.setOnClickListener(v -> showCgpaInfoDialog());
 
-        // ✅ 3) Load fresh results only when cache not available
-        if (!showedCache) {
-            loadRealResults(false);
-        }
+        // ✅ prefs open off the main thread at app start: render once they are ready
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+            semesterAdapter.setShowGrade(prefs.isShowGrade());
+
+            // ✅ 1) Show cached instantly (if present)
+            boolean showedCache = tryShowCachedResults();
+
+            // ✅ 2) No cache -> shimmer + load; stale cache -> keep it visible and refresh silently
+            if (!showedCache) {
+                setLoading(true);
+                loadRealResults(false);
+            } else if (CachePolicy.onCacheShown(CachePolicy.Dataset.RESULTS, prefs.getResultsCacheUpdatedAt())) {
+                loadRealResults(true);
+            }
+        });
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         // if user toggled showGrade in settings, reflect immediately
-        semesterAdapter.setShowGrade(prefs.isShowGrade());
+        if (prefs != null) semesterAdapter.setShowGrade(prefs.isShowGrade());
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        executor.shutdownNow();
+        resultsUpdates.close();
+        scheduler.cancel(this);
     }
 
     private boolean tryShowCachedResults() {
         try {
-            if (!prefs.hasResultsCache()) return false;
-
-            String json = prefs.getResultsCacheJson();
-            List<SemesterResult> cached = gson.fromJson(json, listType);
+            List<SemesterResult> cached = ModelCache.get().read(prefs, ModelCache.RESULTS);
             if (cached == null || cached.isEmpty()) return false;
 
             semesterAdapter.setItems(cached);
@@ -138,41 +149,37 @@ public class StudentResultsActivity extends AppCompatActivity {
     }
 
     private void loadRealResults(boolean hasVisibleCache) {
-        executor.execute(() -> {
+        scheduler.submit(hasVisibleCache ? TaskScheduler.Lane.PREFETCH : TaskScheduler.Lane.USER_VISIBLE, this, () -> {
             try {
+                ResultsSyncState syncState = ResultsSyncState.fromJson(prefs.getResultsSyncState());
                 List<SemesterResult> fresh =
-                        amsClient.fetchAllSemesterResults(AmsClient.ResultType.REGULAR);
+                        repository.syncSemesterResults(AmsClient.ResultType.REGULAR, syncState);
+                prefs.saveResultsSyncState(syncState.toJson());
 
                 if (fresh == null) fresh = new ArrayList<>();
 
                 double overall = computeOverallCgpa(fresh);
+                // the results observer renders it
+                ModelCache.get().write(ModelCache.RESULTS, fresh, json -> prefs.saveResultsCache(json, overall));
 
-                String json = gson.toJson(fresh, listType);
-                prefs.saveResultsCache(json, overall);
-
-                List<SemesterResult> finalFresh = fresh;
-                mainHandler.post(() -> {
-                    semesterAdapter.setItems(finalFresh);
-                    txtOverallCgpa.setText(String.format(Locale.US, "%.2f", overall));
-                    if (!hasVisibleCache) setLoading(false);
-                });
+                if (!hasVisibleCache) mainHandler.post(CancellationToken.current().guard(() -> setLoading(false)));
 
             } catch (AmsClient.SessionExpiredException e) {
-                mainHandler.post(() -> {
+                mainHandler.post(CancellationToken.current().guard(() -> {
                     if (!hasVisibleCache) {
                         setLoading(false);
                         Toast.makeText(this, "No saved results available.", Toast.LENGTH_SHORT).show();
                     }
-                });
+                }));
             } catch (Exception e) {
-                mainHandler.post(() -> {
+                mainHandler.post(CancellationToken.current().guard(() -> {
                     if (prefs.hasResultsCache()) {
                         if (!hasVisibleCache) setLoading(false);
                     } else {
                         setLoading(false);
                         Toast.makeText(this, "No saved results available.", Toast.LENGTH_SHORT).show();
                     }
-                });
+                }));
             }
         });
     }
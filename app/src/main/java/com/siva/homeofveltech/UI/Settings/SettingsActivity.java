@@ -11,7 +11,9 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.AppCompatButton;
 import androidx.appcompat.widget.SwitchCompat;
 
+import com.siva.homeofveltech.Network.OkHttpProvider;
 import com.siva.homeofveltech.R;
+import com.siva.homeofveltech.Storage.ModelCache;
 import com.siva.homeofveltech.Storage.PrefsManager;
 import com.siva.homeofveltech.UI.Login.LoginActivity;
 
@@ -24,8 +26,6 @@ public class SettingsActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_settings);
 
-        prefs = new PrefsManager(this);
-
         ImageView btnBack = findViewById(R.id.btnBack);
         TextView tvName = findViewById(R.id.tvStudentName);
         TextView tvBranch = findViewById(R.id.tvBranch);
@@ -37,17 +37,22 @@ public class SettingsActivity extends AppCompatActivity {
 
         AppCompatButton btnLogout = findViewById(R.id.btnLogout);
 
-        String name = getIntent().getStringExtra("studentName");
-        String branch = getIntent().getStringExtra("branch");
+        String extraName = getIntent().getStringExtra("studentName");
+        String extraBranch = getIntent().getStringExtra("branch");
 
-        if (TextUtils.isEmpty(name)) name = prefs.getStudentName();
-        if (TextUtils.isEmpty(branch)) branch = prefs.getBranch();
+        // prefs open off the main thread at app start: bind once they are ready
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+            String name = TextUtils.isEmpty(extraName) ? prefs.getStudentName() : extraName;
+            String branch = TextUtils.isEmpty(extraBranch) ? prefs.getBranch() : extraBranch;
 
-        tvName.setText(TextUtils.isEmpty(name) ? "Student" : name);
-        tvBranch.setText(TextUtils.isEmpty(branch) ? "Branch" : branch);
+            tvName.setText(TextUtils.isEmpty(name) ? "Student" : name);
+            tvBranch.setText(TextUtils.isEmpty(branch) ? "Branch" : branch);
 
-        swShowGrades.setChecked(prefs.isShowGrade());
-        swShowGrades.setOnCheckedChangeListener((buttonView, isChecked) -> prefs.setShowGrade(isChecked));
+            swShowGrades.setChecked(prefs.isShowGrade());
+            swShowGrades.setOnCheckedChangeListener((buttonView, isChecked) -> prefs.setShowGrade(isChecked));
+        });
 
         btnBack.setOnClickListener(v -> finish());
 
@@ -68,7 +73,10 @@ public class SettingsActivity extends AppCompatActivity {
         });
 
         btnLogout.setOnClickListener(v -> {
+            if (prefs == null) return; // not open yet
             prefs.clearAll();
+            ModelCache.get().clear();
+            OkHttpProvider.clearSession();
             Intent i = new Intent(this, LoginActivity.class);
             i.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(i);
@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.view.View;
 import android.widget.ImageView;
@@ -16,31 +17,39 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.facebook.shimmer.ShimmerFrameLayout;
 import com.siva.homeofveltech.Adapter.TimetableAdapter;
-import com.siva.homeofveltech.Model.PeriodAttendanceItem;
 import com.siva.homeofveltech.Model.SemesterResult;
 import com.siva.homeofveltech.Model.StudentDashboardData;
-import com.siva.homeofveltech.Model.SubjectAttendanceItem;
 import com.siva.homeofveltech.Model.TimetableItem;
 import com.siva.homeofveltech.Network.AmsClient;
+import com.siva.homeofveltech.Network.AmsRepository;
+import com.siva.homeofveltech.Network.AttendancePageSnapshot;
+import com.siva.homeofveltech.Network.AttendanceSyncState;
+import com.siva.homeofveltech.Network.OkHttpProvider;
+import com.siva.homeofveltech.Network.ResultsSyncState;
+import com.siva.homeofveltech.Network.SessionTracker;
 import com.siva.homeofveltech.R;
+import com.siva.homeofveltech.Storage.CachePolicy;
+import com.siva.homeofveltech.Storage.ModelCache;
 import com.siva.homeofveltech.Storage.PrefsManager;
 import com.siva.homeofveltech.UI.Attendance.SubjectAttendanceActivity;
 import com.siva.homeofveltech.UI.Dialog.SessionRefreshDialog;
 import com.siva.homeofveltech.UI.Result.StudentResultsActivity;
 import com.siva.homeofveltech.UI.TimeTable.FullTimeTableActivity;
 import com.siva.homeofveltech.Utils.TimetableStatusUtils;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.Diagnostics;
+import com.siva.homeofveltech.Utils.Pipeline;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
-import com.google.gson.Gson;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class StudentDashboardActivity extends AppCompatActivity {
+    private static final String TAG = "StudentDashboard";
     private static final long MIN_SHIMMER_MS = 400L;
 
     // Header
@@ -66,10 +75,11 @@ public class StudentDashboardActivity extends AppCompatActivity {
     private long loadingStartMs = 0L;
 
     // Background
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
-    private final AmsClient amsClient = new AmsClient();
+    private final TaskScheduler scheduler = TaskScheduler.get();
+    private final AmsRepository repository = AmsRepository.getInstance();
     private PrefsManager prefs;
     private StudentDashboardData currentDashboardData;
+    private ModelCache.Registration dashboardUpdates;
     private final Handler statusHandler = new Handler(Looper.getMainLooper());
     private final Runnable statusTick = new Runnable() {
         @Override
@@ -83,10 +93,14 @@ public class StudentDashboardActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        long openStart = SystemClock.uptimeMillis();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_student_dashboard);
 
-        prefs = new PrefsManager(this);
+        // Dashboard writes from any screen (this one included) land here
+        dashboardUpdates = ModelCache.get().observe(ModelCache.DASHBOARD, d -> runOnUiThread(() -> {
+            if (!isDestroyed()) updateUI(d);
+        }));
 
         // Header
         txtWelcome = findViewById(R.id.txt_welcome);
@@ -130,26 +144,35 @@ public class StudentDashboardActivity extends AppCompatActivity {
                 new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false));
         recyclerViewTimetable.setAdapter(adapter);
 
-        // Header text (professional)
-        String studentName = prefs.getStudentName();
-        String username = prefs.getUsername();
-        String displayName = !TextUtils.isEmpty(studentName) ? studentName
-                : (!TextUtils.isEmpty(username) ? username : "Student");
-
         if (txtWelcome != null)
             txtWelcome.setText("Welcome");
-        if (txtStudentName != null)
-            txtStudentName.setText(displayName);
-
-        // Defaults
         if (txtOverlayAttendance != null)
             txtOverlayAttendance.setText("--%");
-        if (txtOverlayCgpa != null) {
-            double cgpa = prefs.getResultsCacheCgpa();
-            txtOverlayCgpa.setText(cgpa > 0 ? String.format(Locale.US, "%.2f", cgpa) : "--");
-        }
 
-        loadDashboard(false); // false = not a manual refresh
+        // prefs open off the main thread at app start: render once they are ready
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+
+            // Header text (professional)
+            String studentName = prefs.getStudentName();
+            String username = prefs.getUsername();
+            String displayName = !TextUtils.isEmpty(studentName) ? studentName
+                    : (!TextUtils.isEmpty(username) ? username : "Student");
+            if (txtStudentName != null)
+                txtStudentName.setText(displayName);
+
+            // Defaults
+            if (txtOverlayCgpa != null) {
+                double cgpa = prefs.getResultsCacheCgpa();
+                txtOverlayCgpa.setText(cgpa > 0 ? String.format(Locale.US, "%.2f", cgpa) : "--");
+            }
+
+            loadDashboard(false); // false = not a manual refresh
+            // onCreate to first render: cold (prefs still opening) vs warm opens
+            long openMs = SystemClock.uptimeMillis() - openStart;
+            Diagnostics.log(TAG, () -> "Screen open: " + openMs + "ms, " + PrefsManager.getInitStats());
+        });
     }
 
     private void loadDashboard(boolean manualRefresh) {
@@ -159,26 +182,29 @@ public class StudentDashboardActivity extends AppCompatActivity {
             return;
         }
 
-        // Otherwise, show cached data instantly (no shimmer!)
+        // Otherwise, show cached data instantly (no shimmer!) and refresh silently once it is stale
         if (prefs.hasDashboardCache()) {
-            loadFromCache();
+            if (loadFromCache() && CachePolicy.onCacheShown(CachePolicy.Dataset.DASHBOARD, prefs.getDashboardCacheUpdatedAt())) {
+                fetchFromServer(false);
+            }
         } else {
             // No cache, must fetch (first login)
             fetchFromServer(true);
         }
     }
 
-    private void loadFromCache() {
+    /** Shows the cached dashboard; false if it was unreadable (a blocking fetch is started instead). */
+    private boolean loadFromCache() {
         try {
-            String json = prefs.getDashboardCache();
-            Gson gson = new Gson();
-            StudentDashboardData data = gson.fromJson(json, StudentDashboardData.class);
+            StudentDashboardData data = ModelCache.get().read(prefs, ModelCache.DASHBOARD);
             if (data == null) throw new IllegalStateException("Empty dashboard cache");
             updateUI(data);
             setLoading(false);
+            return true;
         } catch (Exception e) {
             // Cache corrupted, fetch fresh
             fetchFromServer(true);
+            return false;
         }
     }
 
@@ -188,78 +214,93 @@ public class StudentDashboardActivity extends AppCompatActivity {
         if (txtTimetableTitle != null)
             txtTimetableTitle.setText(todayName + " Timetable");
 
-        executor.execute(() -> {
+        TaskScheduler.Lane lane = showBlockingLoader ? TaskScheduler.Lane.USER_VISIBLE : TaskScheduler.Lane.PREFETCH;
+        scheduler.submit(lane, this, () -> {
             try {
-                StudentDashboardData data = amsClient.fetchStudentDashboardData();
-
-                // Save to cache
-                Gson gson = new Gson();
-                String json = gson.toJson(data);
-                prefs.saveDashboardCache(json);
-                prefs.saveTimetableCache(gson.toJson(data.weekTimetable));
+                AttendancePageSnapshot page = repository.fetchAttendancePage();
+                ResultsSyncState resultsState = ResultsSyncState.fromJson(prefs.getResultsSyncState());
+                StudentDashboardData data = repository.fetchStudentDashboardData(page, resultsState);
+                prefs.saveResultsSyncState(resultsState.toJson());
+
+                // Save to cache (the dashboard observer renders it)
+                ModelCache cache = ModelCache.get();
+                cache.write(ModelCache.DASHBOARD, data, prefs::saveDashboardCache);
+                cache.write(ModelCache.TIMETABLE, data.weekTimetable, prefs::saveTimetableCache);
                 prefs.saveStudentProfile(data.studentName, data.branch);
-                executor.execute(() -> refreshSecondaryCaches(gson));
+                // jittered + load-aware: cold starts across the fleet must not crawl AMS in the same second
+                scheduler.submitAfter(TaskScheduler.Lane.PREFETCH, this, OkHttpProvider.getRefreshThrottle().backgroundDelayMs(),
+                        () -> refreshSecondaryCaches(page, data.semesterResults));
 
-                runOnUiThread(() -> {
-                    updateUI(data);
-                    if (showBlockingLoader) setLoading(false);
-                });
+                if (showBlockingLoader) runOnUiThread(CancellationToken.current().guard(() -> setLoading(false)));
             } catch (AmsClient.SessionExpiredException e) {
-                runOnUiThread(() -> {
+                runOnUiThread(CancellationToken.current().guard(() -> {
                     if (showBlockingLoader) setLoading(false);
                     if (prefs.hasDashboardCache()) {
                         loadFromCache();
                     } else {
                         Toast.makeText(this, "No saved dashboard data available.", Toast.LENGTH_SHORT).show();
                     }
-                });
+                }));
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                runOnUiThread(CancellationToken.current().guard(() -> {
                     if (showBlockingLoader) setLoading(false);
                     if (prefs.hasDashboardCache()) {
                         loadFromCache();
                     } else {
                         Toast.makeText(this, "No saved dashboard data available.", Toast.LENGTH_SHORT).show();
                     }
-                });
+                }));
             }
         });
     }
 
-    private void refreshSecondaryCaches(Gson gson) {
+    /**
+     * Runs as a fetch → parse → persist pipeline: this thread only does the AMS requests, while
+     * Gson + encrypted-prefs writes of earlier results happen on the pipeline's persist stage.
+     * {@code results} were already synced by the dashboard fetch and are only cached here.
+     */
+    private void refreshSecondaryCaches(AttendancePageSnapshot page, List<SemesterResult> results) {
+        ModelCache cache = ModelCache.get();
+        Pipeline pipeline = new Pipeline("dashboard-refresh", 8);
         try {
-            List<SubjectAttendanceItem> attendance = amsClient.fetchAttendanceData();
-            prefs.saveAttendanceCache(gson.toJson(attendance));
-
-            if (attendance != null) {
-                for (SubjectAttendanceItem subject : attendance) {
-                    if (subject == null) continue;
-                    try {
-                        List<PeriodAttendanceItem> periods = amsClient.fetchSubjectFullAttendance(
-                                subject.subjectCode,
-                                subject.subjectName
-                        );
-                        prefs.saveSubjectFullAttendanceCache(
-                                subject.subjectCode,
-                                subject.subjectName,
-                                gson.toJson(periods)
-                        );
-                    } catch (Exception ignored) {
-                        // continue with other subjects
-                    }
+            pipeline.submit(page, AttendancePageSnapshot::getAttendanceItems,
+                    attendance -> cache.write(ModelCache.ATTENDANCE, attendance, prefs::saveAttendanceCache));
+
+            try {
+                if (!page.getCourseOptions().isEmpty()) {
+                    // Only the still-open months are re-fetched; frozen months come from the stored history
+                    AttendanceSyncState attendanceState = AttendanceSyncState.fromJson(prefs.getAttendanceSyncState());
+                    AmsClient.CrawlStats stats = repository.syncAttendanceHistory(page, attendanceState,
+                            (code, name, periods) -> pipeline.persist(periods,
+                                    p -> cache.write(ModelCache.subjectAttendance(code, name), p,
+                                            json -> prefs.saveSubjectFullAttendanceCache(code, name, json))));
+                    pipeline.persist(attendanceState.toJson(), prefs::saveAttendanceSyncState);
+                    Diagnostics.log(TAG, () -> "Attendance history sync: " + stats);
                 }
+            } catch (Exception ignored) {
             }
-        } catch (Exception ignored) {
-        }
 
-        try {
-            List<SemesterResult> results = amsClient.fetchAllSemesterResultsRegular();
-            double cgpa = 0.0;
-            if (results != null && !results.isEmpty()) {
-                cgpa = results.get(results.size() - 1).tgpa;
+            try {
+                Diagnostics.log(TAG, () -> "Results crawl: " + repository.getClient().getLastResultsCrawlStats()
+                        + "\nRepository: " + repository + ", " + repository.getClient().getHedger()
+                        + "\nScheduler queue waits: " + scheduler.getStats() + ", " + OkHttpProvider.getRefreshThrottle()
+                        + "\nCache age at display: " + CachePolicy.getStats() + ", " + cache);
+                double cgpa = 0.0;
+                if (results != null && !results.isEmpty()) {
+                    cgpa = results.get(results.size() - 1).tgpa;
+                }
+                double finalCgpa = cgpa;
+                if (results != null) {
+                    pipeline.persist(results, r -> cache.write(ModelCache.RESULTS, r, json -> prefs.saveResultsCache(json, finalCgpa)));
+                }
+            } catch (Exception ignored) {
             }
-            prefs.saveResultsCache(gson.toJson(results), cgpa);
+
+            Pipeline.Timings timings = pipeline.finish();
+            Diagnostics.log(TAG, () -> "Secondary refresh pipeline: " + timings);
         } catch (Exception ignored) {
+        } finally {
+            pipeline.abort();
         }
     }
 
@@ -375,8 +416,9 @@ public class StudentDashboardActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        dashboardUpdates.close();
         stopStatusTicker();
-        executor.shutdownNow();
+        scheduler.cancel(this);
     }
 
     private void startStatusTicker() {
@@ -389,10 +431,18 @@ public class StudentDashboardActivity extends AppCompatActivity {
     }
 
     public void refreshData() {
+        if (prefs == null) return; // first render not done yet; it fetches anyway
         fetchFromServer(!prefs.hasDashboardCache());
     }
 
     private void showRefreshDialog() {
+        // a response just proved the session alive: no captcha round-trip needed to refresh
+        if (SessionTracker.getInstance().isKnownGood()) {
+            refreshData();
+            Toast.makeText(this, "Refreshing…", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
         SessionRefreshDialog dialog = new SessionRefreshDialog();
         dialog.setCallback(new SessionRefreshDialog.RefreshCallback() {
             @Override
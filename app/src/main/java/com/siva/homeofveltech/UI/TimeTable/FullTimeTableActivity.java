@@ -12,18 +12,20 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.facebook.shimmer.ShimmerFrameLayout;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.siva.homeofveltech.Adapter.DayTabsAdapter;
 import com.siva.homeofveltech.Adapter.FullTimeTableAdapter;
 import com.siva.homeofveltech.Model.StudentDashboardData;
 import com.siva.homeofveltech.Model.TimetableItem;
 import com.siva.homeofveltech.Network.AmsClient;
+import com.siva.homeofveltech.Network.AmsRepository;
 import com.siva.homeofveltech.R;
+import com.siva.homeofveltech.Storage.CachePolicy;
+import com.siva.homeofveltech.Storage.ModelCache;
 import com.siva.homeofveltech.Storage.PrefsManager;
 import com.siva.homeofveltech.Utils.TimetableStatusUtils;
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.TaskScheduler;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -33,8 +35,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.text.SimpleDateFormat;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class FullTimeTableActivity extends AppCompatActivity {
     private static final long MIN_SHIMMER_MS = 400L;
@@ -48,10 +48,10 @@ public class FullTimeTableActivity extends AppCompatActivity {
     private TextView txtEmptyDay;
     private boolean isLoading = false;
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
-    private final AmsClient amsClient = new AmsClient();
-    private final Gson gson = new Gson();
+    private final TaskScheduler scheduler = TaskScheduler.get();
+    private final AmsRepository repository = AmsRepository.getInstance();
     private PrefsManager prefs;
+    private ModelCache.Registration timetableUpdates;
     private long loadingStartMs = 0L;
 
     private final List<String> BASE_DAYS = Arrays.asList(
@@ -74,8 +74,6 @@ public class FullTimeTableActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_full_time_table);
 
-        prefs = new PrefsManager(this);
-
         shimmer = findViewById(R.id.shimmer_layout);
         txtSelectedDay = findViewById(R.id.txt_selected_day);
         txtEmptyDay = findViewById(R.id.txt_empty_day);
@@ -99,43 +97,52 @@ public class FullTimeTableActivity extends AppCompatActivity {
         });
         recyclerDayTabs.setAdapter(dayTabsAdapter);
 
-        boolean showedCache = tryShowCachedTimetable();
-        if (!showedCache) {
-            setLoading(true);
-            loadFullTimetable(false);
-        }
+        // Timetables written by any screen or background refresh (this one included) land here
+        timetableUpdates = ModelCache.get().observe(ModelCache.TIMETABLE, week -> runOnUiThread(() -> {
+            if (isDestroyed()) return;
+            weekTimetable.clear();
+            weekTimetable.putAll(week);
+            renderSelectedDay();
+        }));
+
+        // prefs open off the main thread at app start: render once they are ready
+        PrefsManager.whenReady(this, p -> {
+            if (isDestroyed()) return;
+            prefs = p;
+            boolean showedCache = tryShowCachedTimetable();
+            if (!showedCache) {
+                setLoading(true);
+                loadFullTimetable(false);
+            } else if (CachePolicy.onCacheShown(CachePolicy.Dataset.TIMETABLE, prefs.getTimetableCacheUpdatedAt())) {
+                loadFullTimetable(true); // stale: keep the cached week visible while refreshing
+            }
+        });
     }
 
     private void loadFullTimetable(boolean hasVisibleCache) {
-        executor.execute(() -> {
+        scheduler.submit(hasVisibleCache ? TaskScheduler.Lane.PREFETCH : TaskScheduler.Lane.USER_VISIBLE, this, () -> {
             try {
-                StudentDashboardData data = amsClient.fetchStudentDashboardData();
-                prefs.saveDashboardCache(gson.toJson(data));
-                prefs.saveTimetableCache(gson.toJson(data.weekTimetable));
-                weekTimetable.clear();
-                if (data.weekTimetable != null) {
-                    weekTimetable.putAll(data.weekTimetable);
-                }
-
-                runOnUiThread(() -> {
-                    renderSelectedDay();
-                    if (!hasVisibleCache) setLoading(false);
-                });
+                // the week is on Attendance.aspx: no results crawl needed for it
+                Map<String, List<TimetableItem>> week = repository.fetchAttendancePage().getWeekTimetable();
+                // the timetable observer renders it
+                ModelCache.get().write(ModelCache.TIMETABLE, week, prefs::saveTimetableCache);
+
+                if (!hasVisibleCache) runOnUiThread(CancellationToken.current().guard(() -> setLoading(false)));
 
             } catch (AmsClient.SessionExpiredException e) {
-                runOnUiThread(() -> {
+                runOnUiThread(CancellationToken.current().guard(() -> {
                     if (!hasVisibleCache) setLoading(false);
                     if (!tryShowCachedTimetable()) {
                         showNoSavedState();
                     }
-                });
+                }));
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                runOnUiThread(CancellationToken.current().guard(() -> {
                     if (!hasVisibleCache) setLoading(false);
                     if (!tryShowCachedTimetable()) {
                         showNoSavedState();
                     }
-                });
+                }));
             }
         });
     }
@@ -156,21 +163,14 @@ public class FullTimeTableActivity extends AppCompatActivity {
     }
 
     private Map<String, List<TimetableItem>> readTimetableFromCache() {
-        Type mapType = new TypeToken<Map<String, List<TimetableItem>>>() {}.getType();
-
-        String timetableJson = prefs.getTimetableCache();
-        if (timetableJson != null && !timetableJson.trim().isEmpty()) {
-            Map<String, List<TimetableItem>> timetable = gson.fromJson(timetableJson, mapType);
-            if (timetable != null && !timetable.isEmpty()) return timetable;
-        }
-
-        String dashboardJson = prefs.getDashboardCache();
-        if (dashboardJson != null && !dashboardJson.trim().isEmpty()) {
-            StudentDashboardData cachedDashboard = gson.fromJson(dashboardJson, StudentDashboardData.class);
-            if (cachedDashboard != null && cachedDashboard.weekTimetable != null && !cachedDashboard.weekTimetable.isEmpty()) {
-                prefs.saveTimetableCache(gson.toJson(cachedDashboard.weekTimetable, mapType));
-                return cachedDashboard.weekTimetable;
-            }
+        ModelCache cache = ModelCache.get();
+        Map<String, List<TimetableItem>> timetable = cache.read(prefs, ModelCache.TIMETABLE);
+        if (timetable != null && !timetable.isEmpty()) return timetable;
+
+        StudentDashboardData cachedDashboard = cache.read(prefs, ModelCache.DASHBOARD);
+        if (cachedDashboard != null && cachedDashboard.weekTimetable != null && !cachedDashboard.weekTimetable.isEmpty()) {
+            cache.write(ModelCache.TIMETABLE, cachedDashboard.weekTimetable, prefs::saveTimetableCache);
+            return cachedDashboard.weekTimetable;
         }
 
         return new HashMap<>();
@@ -293,8 +293,9 @@ public class FullTimeTableActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        timetableUpdates.close();
         stopStatusTicker();
-        executor.shutdownNow();
+        scheduler.cancel(this);
     }
 
     private void startStatusTicker() {
@@ -0,0 +1,117 @@
+package com.siva.homeofveltech.Utils;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cancellation signal for one piece of screen-owned work. {@link TaskScheduler} gives every task a
+ * token and makes it {@link #current()} on the worker while the task runs; cancelling the task's
+ * tag (screens do that in onDestroy) cancels the token. Network code registers its OkHttp calls
+ * with {@link #onCancel}, so a cancel closes the socket instead of letting the request run on, and
+ * UI callbacks wrapped in {@link #guard} are dropped once the token is cancelled.
+ */
+public final class CancellationToken {
+
+    /** Token of code that does not run inside a scheduler task; never cancelled. */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    /** Thrown by network code when a request was cut off because its token was cancelled. */
+    public static class CancelledException extends InterruptedIOException {
+        private static final long serialVersionUID = 1L;
+
+        public CancelledException() {
+            super("Cancelled");
+        }
+    }
+
+    /** Handle for an {@link #onCancel} action; closing it unregisters the action. */
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Registration NO_REGISTRATION = () -> {};
+
+    private final List<Runnable> actions = new ArrayList<>();
+    private volatile boolean cancelled;
+    private Registration parentRegistration = NO_REGISTRATION;
+
+    /** Token of the scheduler task running on this thread, {@link #NONE} elsewhere. */
+    public static CancellationToken current() {
+        CancellationToken t = CURRENT.get();
+        return t != null ? t : NONE;
+    }
+
+    /** Makes {@code token} current on this thread and returns the previous one (for restoring). */
+    static CancellationToken bind(CancellationToken token) {
+        CancellationToken previous = CURRENT.get();
+        if (token == null) CURRENT.remove();
+        else CURRENT.set(token);
+        return previous;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void throwIfCancelled() throws CancelledException {
+        if (cancelled) throw new CancelledException();
+    }
+
+    /** Cancels once; registered actions run on the calling thread. */
+    public void cancel() {
+        if (this == NONE) return;
+        List<Runnable> toRun;
+        synchronized (actions) {
+            if (cancelled) return;
+            cancelled = true;
+            toRun = new ArrayList<>(actions);
+            actions.clear();
+        }
+        for (Runnable r : toRun) {
+            try {
+                r.run();
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    /** Runs {@code action} on cancel, or right away if already cancelled. */
+    public Registration onCancel(Runnable action) {
+        if (this == NONE) return NO_REGISTRATION;
+        synchronized (actions) {
+            if (!cancelled) {
+                actions.add(action);
+                return () -> {
+                    synchronized (actions) {
+                        actions.remove(action);
+                    }
+                };
+            }
+        }
+        action.run();
+        return NO_REGISTRATION;
+    }
+
+    /** New token that is cancelled together with this one (work spawned by a task). */
+    public CancellationToken child() {
+        CancellationToken child = new CancellationToken();
+        child.parentRegistration = onCancel(child::cancel);
+        return child;
+    }
+
+    /** Unlinks a finished child from its parent. */
+    void release() {
+        parentRegistration.close();
+    }
+
+    /** {@code callback} that does nothing once this token is cancelled (e.g. the screen is gone). */
+    public Runnable guard(Runnable callback) {
+        return () -> {
+            if (!cancelled) callback.run();
+        };
+    }
+}
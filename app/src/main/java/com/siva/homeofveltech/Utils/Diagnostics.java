@@ -0,0 +1,24 @@
+package com.siva.homeofveltech.Utils;
+
+import android.util.Log;
+
+import com.siva.homeofveltech.BuildConfig;
+
+import java.util.function.Supplier;
+
+/**
+ * Performance counters (crawl stats, queue waits, cache ages, ...) for debug builds only.
+ * In release builds nothing is logged and the message is never built.
+ */
+public final class Diagnostics {
+
+    private Diagnostics() {}
+
+    public static boolean isEnabled() {
+        return BuildConfig.DEBUG;
+    }
+
+    public static void log(String tag, Supplier<String> message) {
+        if (BuildConfig.DEBUG) Log.d(tag, message.get());
+    }
+}
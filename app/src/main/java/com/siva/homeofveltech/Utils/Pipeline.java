@@ -0,0 +1,278 @@
+package com.siva.homeofveltech.Utils;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three-stage fetch → parse → persist pipeline for refresh flows. The calling thread is the fetch
+ * stage: it does the network I/O and hands raw results to {@link #submit}. Parsing runs as a task on
+ * the {@link TaskScheduler} prefetch lane and persisting (Gson + prefs) on the maintenance lane, so
+ * the next request goes out while the previous page is still being parsed and written. No threads
+ * of its own: a stage's task drains its queue and ends, and is submitted again by the next item.
+ *
+ * Both hand-offs are bounded queues. When a queue is full the upstream stage runs the oldest
+ * downstream item itself instead of waiting (backpressure that cannot deadlock on a busy scheduler),
+ * and that time is recorded as "blocked" in {@link Timings}, which shows the stage limiting a refresh.
+ * A failing parse or persist only drops that item. Items are processed in submission order.
+ */
+public final class Pipeline {
+
+    public interface Parser<R, M> {
+        M parse(R raw) throws Exception;
+    }
+
+    public interface Sink<M> {
+        void accept(M model) throws Exception;
+    }
+
+    /** Per-stage figures, all in ms. busy = doing work, blocked = waiting on a full downstream queue. */
+    public static final class StageTimings {
+        public final String stage;
+        public final int items;
+        public final int failed;
+        public final long busyMs;
+        public final long blockedMs;
+
+        StageTimings(String stage, int items, int failed, long busyNanos, long blockedNanos) {
+            this.stage = stage;
+            this.items = items;
+            this.failed = failed;
+            this.busyMs = TimeUnit.NANOSECONDS.toMillis(busyNanos);
+            this.blockedMs = TimeUnit.NANOSECONDS.toMillis(blockedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return stage + "{items=" + items + (failed > 0 ? ", failed=" + failed : "")
+                    + ", busy=" + busyMs + "ms, blocked=" + blockedMs + "ms}";
+        }
+    }
+
+    public static final class Timings {
+        public final StageTimings fetch;
+        public final StageTimings parse;
+        public final StageTimings persist;
+        public final long wallMs;
+
+        Timings(StageTimings fetch, StageTimings parse, StageTimings persist, long wallMs) {
+            this.fetch = fetch;
+            this.parse = parse;
+            this.persist = persist;
+            this.wallMs = wallMs;
+        }
+
+        /** The stage with the most busy time, i.e. the one to optimize. */
+        public StageTimings bottleneck() {
+            StageTimings max = fetch;
+            if (parse.busyMs > max.busyMs) max = parse;
+            if (persist.busyMs > max.busyMs) max = persist;
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "wall=" + wallMs + "ms, " + fetch + ", " + parse + ", " + persist
+                    + ", bottleneck=" + bottleneck().stage;
+        }
+    }
+
+    /** One downstream stage: a bounded queue run in order, one item at a time, by whoever gets to it. */
+    private final class Stage {
+        final String name;
+        final String tag;
+        final TaskScheduler.Lane lane;
+        final int capacity;
+        final ArrayDeque<Runnable> queue = new ArrayDeque<>(); // guarded by this
+        TaskScheduler.Task drain;                                // guarded by this; null when idle
+        // run lock: serializes items across the drain task and upstream helpers
+        final Object runLock = new Object();
+        int items, failed;                 // guarded by runLock
+        long busyNanos, blockedNanos;      // guarded by runLock
+
+        Stage(String name, String tag, TaskScheduler.Lane lane, int capacity) {
+            this.name = name;
+            this.tag = tag;
+            this.lane = lane;
+            this.capacity = capacity;
+        }
+
+        /** Queues {@code item}; while the queue is full, runs the oldest item on this thread instead. */
+        void put(Runnable item) throws InterruptedIOException {
+            while (true) {
+                if (aborted) throw new InterruptedIOException("Pipeline aborted");
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Interrupted while handing off to pipeline");
+                }
+                synchronized (this) {
+                    if (queue.size() < capacity) {
+                        queue.add(item);
+                        if (drain == null) drain = TaskScheduler.get().submit(lane, tag, this::drainLoop);
+                        return;
+                    }
+                }
+                runNext();
+            }
+        }
+
+        /** Runs the oldest queued item; false if there was none. */
+        boolean runNext() {
+            synchronized (runLock) {
+                Runnable item;
+                synchronized (this) {
+                    item = queue.poll();
+                }
+                if (item == null) return false;
+                item.run();
+                return true;
+            }
+        }
+
+        private void drainLoop() {
+            while (true) {
+                boolean cancelled = false;
+                while (!aborted && !(cancelled = Thread.currentThread().isInterrupted()) && runNext()) {
+                    // next item
+                }
+                synchronized (this) {
+                    // an item queued after the last poll found the drain still set: take it here.
+                    // If cancelled, whatever is left is run by the next put or by finish().
+                    if (aborted || cancelled || queue.isEmpty()) {
+                        drain = null;
+                        return;
+                    }
+                }
+            }
+        }
+
+        void abort() {
+            TaskScheduler.Task t;
+            synchronized (this) {
+                queue.clear();
+                t = drain;
+            }
+            TaskScheduler.get().cancel(t);
+        }
+
+        StageTimings timings() {
+            synchronized (runLock) {
+                return new StageTimings(name, items, failed, busyNanos, blockedNanos);
+            }
+        }
+    }
+
+    private final Stage parse;
+    private final Stage persist;
+    private final long startNanos = System.nanoTime();
+
+    // fetch stage (caller thread)
+    private int submitted;
+    private long fetchBlockedNanos;
+
+    private volatile boolean aborted;
+    private Timings timings;
+
+    /** {@code capacity} bounds each hand-off queue. */
+    public Pipeline(String name, int capacity) {
+        parse = new Stage("parse", name + "-parse", TaskScheduler.Lane.PREFETCH, capacity);
+        persist = new Stage("persist", name + "-persist", TaskScheduler.Lane.MAINTENANCE, capacity);
+    }
+
+    /**
+     * Hands {@code raw} to the parse stage; its model then goes to {@code sink} on the persist stage.
+     * May run queued parse work on the calling thread while the parse queue is full. Call from the
+     * fetch (owning) thread only. Returns false if the pipeline was aborted or the caller interrupted
+     * (the interrupt flag is kept).
+     * {@code raw} is read on another thread: never hand over an object the fetch stage goes on
+     * mutating (e.g. a sync state); serialize or copy it first.
+     */
+    public <R, M> boolean submit(R raw, Parser<R, M> parser, Sink<M> sink) {
+        submitted++;
+        long t = System.nanoTime();
+        try {
+            parse.put(parseJob(raw, parser, sink));
+            return true;
+        } catch (InterruptedIOException e) {
+            return false;
+        } finally {
+            fetchBlockedNanos += System.nanoTime() - t;
+        }
+    }
+
+    /** Shortcut for a model that needs no parsing (already built by the fetch stage). */
+    public <M> boolean persist(M model, Sink<M> sink) {
+        return submit(model, m -> m, sink);
+    }
+
+    // runs under parse.runLock
+    private <R, M> Runnable parseJob(R raw, Parser<R, M> parser, Sink<M> sink) {
+        return () -> {
+            long t = System.nanoTime();
+            M model;
+            try {
+                model = parser.parse(raw);
+                parse.items++;
+            } catch (Exception e) {
+                parse.failed++;
+                return;
+            } finally {
+                parse.busyNanos += System.nanoTime() - t;
+            }
+
+            long blocked = System.nanoTime();
+            try {
+                persist.put(() -> {
+                    long p = System.nanoTime(); // runs under persist.runLock
+                    try {
+                        sink.accept(model);
+                        persist.items++;
+                    } catch (Exception e) {
+                        persist.failed++;
+                    } finally {
+                        persist.busyNanos += System.nanoTime() - p;
+                    }
+                });
+            } catch (InterruptedIOException e) {
+                // aborted, or the drain task was cancelled: the item is dropped
+            } finally {
+                parse.blockedNanos += System.nanoTime() - blocked;
+            }
+        };
+    }
+
+    /**
+     * Waits until everything submitted is parsed and persisted; returns the stage timings. Whatever
+     * the stage tasks have not picked up yet is run on the calling thread.
+     */
+    public Timings finish() throws InterruptedIOException {
+        if (timings != null) return timings;
+        long fetchEnd = System.nanoTime();
+        // once runNext finds the queue empty under the run lock, nothing of that stage is running
+        while (!aborted && parse.runNext()) {
+            // help the parse stage
+        }
+        while (!aborted && persist.runNext()) {
+            // help the persist stage
+        }
+        if (aborted || Thread.currentThread().isInterrupted()) {
+            abort();
+            throw new InterruptedIOException("Interrupted while draining pipeline");
+        }
+
+        long fetchBusy = fetchEnd - startNanos - fetchBlockedNanos;
+        timings = new Timings(
+                new StageTimings("fetch", submitted, 0, fetchBusy, fetchBlockedNanos),
+                parse.timings(),
+                persist.timings(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return timings;
+    }
+
+    /** Drops whatever is still queued and cancels both stage tasks. No-op once finished. */
+    public void abort() {
+        if (timings != null) return;
+        aborted = true;
+        parse.abort();
+        persist.abort();
+    }
+}
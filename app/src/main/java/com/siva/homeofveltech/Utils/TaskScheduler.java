@@ -0,0 +1,263 @@
+package com.siva.homeofveltech.Utils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * App-wide background scheduler with priority lanes, replacing the per-screen single-thread executors.
+ *
+ * Queued work always runs in lane order (user-visible, then prefetch, then maintenance; FIFO within
+ * a lane), so a tap never waits behind queued prefetch. At most one background-lane task runs at a
+ * time, which keeps one worker free for user-visible work even while a long crawl holds the session.
+ * Tasks carry a tag (usually the owning screen) and can be cancelled by it: queued ones are dropped,
+ * running ones are interrupted and their {@link CancellationToken} is cancelled, which also cancels
+ * the OkHttp calls they have in flight and tasks they submitted.
+ *
+ * Background work can be deferred with {@link #submitAfter}; a deferred task only joins its lane
+ * once its delay is over, so it never holds a place ahead of work the user asked for meanwhile.
+ */
+public final class TaskScheduler {
+
+    public enum Lane { USER_VISIBLE, PREFETCH, MAINTENANCE }
+
+    private static final int WORKERS = 2;
+    private static final int MAX_RUNNING_BACKGROUND = 1;
+
+    private static volatile TaskScheduler instance;
+
+    public static TaskScheduler get() {
+        if (instance == null) {
+            synchronized (TaskScheduler.class) {
+                if (instance == null) instance = new TaskScheduler();
+            }
+        }
+        return instance;
+    }
+
+    /** Handle for one submitted task. */
+    public static final class Task implements Comparable<Task> {
+        final Lane lane;
+        final Object tag;
+        final Runnable body;
+        final CancellationToken token;
+        final long seq;
+        long enqueuedAtNanos = System.nanoTime(); // readiness time for deferred tasks
+        volatile boolean cancelled;
+        Thread runner; // guarded by the scheduler lock
+
+        Task(Lane lane, Object tag, Runnable body, CancellationToken token, long seq) {
+            this.lane = lane;
+            this.tag = tag;
+            this.body = body;
+            this.token = token;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int c = lane.compareTo(o.lane);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    /** Queue-wait figures for one lane. */
+    public static final class LaneStats {
+        public final int started;
+        public final long totalWaitMs;
+        public final long maxWaitMs;
+        public final int queued;
+
+        LaneStats(int started, long totalWaitMs, long maxWaitMs, int queued) {
+            this.started = started;
+            this.totalWaitMs = totalWaitMs;
+            this.maxWaitMs = maxWaitMs;
+            this.queued = queued;
+        }
+
+        public long avgWaitMs() {
+            return started == 0 ? 0 : totalWaitMs / started;
+        }
+
+        @Override
+        public String toString() {
+            return "started=" + started + ", queued=" + queued
+                    + ", avgWaitMs=" + avgWaitMs() + ", maxWaitMs=" + maxWaitMs;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final PriorityQueue<Task> deferred = new PriorityQueue<>((a, b) -> Long.compare(a.enqueuedAtNanos, b.enqueuedAtNanos));
+    private final List<Task> running = new ArrayList<>();
+    private final int[] started = new int[Lane.values().length];
+    private final long[] totalWaitNanos = new long[Lane.values().length];
+    private final long[] maxWaitNanos = new long[Lane.values().length];
+    private long nextSeq;
+    private int runningBackground;
+
+    private TaskScheduler() {
+        for (int i = 0; i < WORKERS; i++) {
+            Thread t = new Thread(this::workLoop, "ams-worker-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /**
+     * Queues {@code body}. Submitted from inside a task, the new task's token is a child of the
+     * running one, so cancelling a screen also cancels the follow-up work it scheduled.
+     */
+    public Task submit(Lane lane, Object tag, Runnable body) {
+        CancellationToken token = CancellationToken.current().child();
+        synchronized (lock) {
+            Task task = new Task(lane, tag, body, token, nextSeq++);
+            queue.add(task);
+            lock.notifyAll();
+            return task;
+        }
+    }
+
+    /**
+     * Like {@link #submit}, but the task is held back for {@code delayMs} before it is queued. Only
+     * for background lanes: user-visible work is never deferred.
+     */
+    public Task submitAfter(Lane lane, Object tag, long delayMs, Runnable body) {
+        if (lane == Lane.USER_VISIBLE) throw new IllegalArgumentException("User-visible work is never deferred");
+        if (delayMs <= 0) return submit(lane, tag, body);
+        CancellationToken token = CancellationToken.current().child();
+        synchronized (lock) {
+            Task task = new Task(lane, tag, body, token, nextSeq++);
+            task.enqueuedAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            deferred.add(task);
+            lock.notifyAll();
+            return task;
+        }
+    }
+
+    /** Drops the task if still queued, interrupts it and cancels its token if running. */
+    public void cancel(Task task) {
+        if (task == null) return;
+        synchronized (lock) {
+            task.cancelled = true;
+            boolean wasWaiting = queue.remove(task) || deferred.remove(task);
+            if (!wasWaiting && task.runner != null) task.runner.interrupt();
+        }
+        task.token.cancel();
+    }
+
+    /** Cancels every queued or running task submitted with {@code tag}. */
+    public void cancel(Object tag) {
+        if (tag == null) return;
+        List<Task> cancelled = new ArrayList<>();
+        synchronized (lock) {
+            dropTagged(queue, tag, cancelled);
+            dropTagged(deferred, tag, cancelled);
+            for (Task t : running) {
+                if (tag.equals(t.tag)) {
+                    t.cancelled = true;
+                    t.runner.interrupt();
+                    cancelled.add(t);
+                }
+            }
+        }
+        // outside the lock: cancelling a token cancels OkHttp calls and child tasks' tokens
+        for (Task t : cancelled) t.token.cancel();
+    }
+
+    private static void dropTagged(PriorityQueue<Task> from, Object tag, List<Task> into) {
+        for (Iterator<Task> it = from.iterator(); it.hasNext(); ) {
+            Task t = it.next();
+            if (tag.equals(t.tag)) {
+                t.cancelled = true;
+                it.remove();
+                into.add(t);
+            }
+        }
+    }
+
+    /** Queue waits are measured from when a task became ready; deferred tasks count as queued. */
+    public Map<Lane, LaneStats> getStats() {
+        Map<Lane, LaneStats> out = new EnumMap<>(Lane.class);
+        synchronized (lock) {
+            int[] queued = new int[Lane.values().length];
+            for (Task t : queue) queued[t.lane.ordinal()]++;
+            for (Task t : deferred) queued[t.lane.ordinal()]++;
+            for (Lane lane : Lane.values()) {
+                int i = lane.ordinal();
+                out.put(lane, new LaneStats(started[i],
+                        TimeUnit.NANOSECONDS.toMillis(totalWaitNanos[i]),
+                        TimeUnit.NANOSECONDS.toMillis(maxWaitNanos[i]),
+                        queued[i]));
+            }
+        }
+        return out;
+    }
+
+    private void workLoop() {
+        while (true) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                continue; // stale interrupt from a cancelled task; workers never exit
+            }
+
+            CancellationToken previous = CancellationToken.bind(task.token);
+            try {
+                if (!task.token.isCancelled()) task.body.run();
+            } catch (RuntimeException ignored) {
+                // tasks handle their own errors; a stray one must not kill the worker
+            } finally {
+                CancellationToken.bind(previous);
+                task.token.release();
+                synchronized (lock) {
+                    running.remove(task);
+                    task.runner = null;
+                    if (task.lane != Lane.USER_VISIBLE) runningBackground--;
+                    lock.notifyAll();
+                }
+                Thread.interrupted(); // clear a cancel that landed after the task finished
+            }
+        }
+    }
+
+    private Task take() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                long now = System.nanoTime();
+                while (!deferred.isEmpty() && deferred.peek().enqueuedAtNanos - now <= 0) {
+                    queue.add(deferred.poll());
+                }
+
+                Task head = queue.peek();
+                // head is the highest lane queued; a background head means no user-visible work is waiting
+                if (head != null && (head.lane == Lane.USER_VISIBLE || runningBackground < MAX_RUNNING_BACKGROUND)) {
+                    queue.poll();
+                    if (head.lane != Lane.USER_VISIBLE) runningBackground++;
+
+                    int i = head.lane.ordinal();
+                    long wait = System.nanoTime() - head.enqueuedAtNanos;
+                    started[i]++;
+                    totalWaitNanos[i] += wait;
+                    if (wait > maxWaitNanos[i]) maxWaitNanos[i] = wait;
+
+                    head.runner = Thread.currentThread();
+                    running.add(head);
+                    return head;
+                }
+                Task next = deferred.peek();
+                if (next == null) {
+                    lock.wait();
+                } else {
+                    long waitMs = TimeUnit.NANOSECONDS.toMillis(next.enqueuedAtNanos - now);
+                    lock.wait(Math.max(1, waitMs));
+                }
+            }
+        }
+    }
+}
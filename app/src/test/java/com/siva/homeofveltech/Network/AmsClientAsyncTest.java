@@ -0,0 +1,119 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Model.StudentProfile;
+import com.siva.homeofveltech.Utils.TaskScheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+public class AmsClientAsyncTest {
+
+    private static final String PAGE = "<html><body><form>"
+            + "<span id=\"MainContent_lblName\">ASHA K</span>"
+            + "<span id=\"MainContent_lblBranch\">B.Tech CSE</span>"
+            + "</form></body></html>";
+
+    private MockWebServer server;
+    private final CountDownLatch callCanceled = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private AmsClient newClient() {
+        return new AmsClient(TestClients.rewritingTo(server, new EventListener() {
+            @Override
+            public void canceled(Call call) {
+                callCanceled.countDown();
+            }
+        }));
+    }
+
+    @Test
+    public void profileIsStreamedAndParsed() throws Exception {
+        server.enqueue(new MockResponse().setBody(PAGE));
+
+        StudentProfile profile = newClient().fetchStudentProfileAsync().get(5, TimeUnit.SECONDS);
+
+        assertEquals("ASHA K", profile.studentName);
+        assertEquals("B.Tech CSE", profile.branch);
+        assertEquals("/Attendance.aspx", server.takeRequest().getPath());
+    }
+
+    @Test
+    public void loginFormCompletesExceptionally() throws Exception {
+        server.enqueue(new MockResponse().setBody("<html><body><form>"
+                + "<input id=\"txtUserName\" name=\"txtUserName\"></form></body></html>"));
+
+        CallFuture<StudentProfile> future = newClient().fetchStudentProfileAsync();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("expected the expired session to surface");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AmsClient.SessionExpiredException);
+        }
+    }
+
+    @Test
+    public void cancellingTheFutureCancelsTheCall() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        CallFuture<StudentProfile> future = newClient().fetchStudentProfileAsync();
+        server.takeRequest(5, TimeUnit.SECONDS); // in flight, waiting on headers
+
+        assertTrue(future.cancel(true));
+        assertTrue("OkHttp call was not cancelled", callCanceled.await(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void cancellingTheTaskCancelsTheFutureAndCall() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        AmsClient ams = newClient();
+        Object tag = new Object();
+        AtomicReference<CallFuture<StudentProfile>> started = new AtomicReference<>();
+        CountDownLatch submitted = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        // the future is created inside a scheduler task, so it is bound to that task's token
+        TaskScheduler.get().submit(TaskScheduler.Lane.USER_VISIBLE, tag, () -> {
+            CallFuture<StudentProfile> future = ams.fetchStudentProfileAsync();
+            started.set(future);
+            submitted.countDown();
+            try {
+                future.get();
+            } catch (Exception ignored) {
+            }
+            finished.countDown();
+        });
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        server.takeRequest(5, TimeUnit.SECONDS);
+
+        TaskScheduler.get().cancel(tag);
+
+        assertTrue("OkHttp call was not cancelled", callCanceled.await(5, TimeUnit.SECONDS));
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertTrue(started.get().isCancelled());
+    }
+}
@@ -0,0 +1,146 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Utils.TaskScheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+import okhttp3.EventListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/** Many screens and workers hitting the one shared AmsClient through AmsRepository at once. */
+public class AmsRepositoryStressTest {
+
+    private static final String PAGE = "<html><body><form>"
+            + "<span id=\"MainContent_lblName\">ASHA K</span>"
+            + "<span id=\"MainContent_lblBranch\">B.Tech CSE</span>"
+            + "</form></body></html>";
+
+    private MockWebServer server;
+    private AmsClient client;
+    private AmsRepository repository;
+    private final AtomicInteger served = new AtomicInteger();
+    /** Response for the n-th request (0-based); every page is slow enough for callers to overlap. */
+    private volatile IntFunction<MockResponse> responses =
+            n -> new MockResponse().setBody(PAGE).setHeadersDelay(50, TimeUnit.MILLISECONDS);
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return responses.apply(served.getAndIncrement());
+            }
+        });
+        server.start();
+        client = new AmsClient(TestClients.rewritingTo(server, EventListener.NONE));
+        repository = new AmsRepository(client);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void concurrentCallersShareOneFetchPerWave() throws Exception {
+        int threads = 16;
+        int rounds = 20;
+        CyclicBarrier wave = new CyclicBarrier(threads);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        AtomicInteger ok = new AtomicInteger();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                try {
+                    for (int r = 0; r < rounds; r++) {
+                        wave.await(10, TimeUnit.SECONDS);
+                        AttendancePageSnapshot page = repository.fetchAttendancePage();
+                        assertEquals("ASHA K", page.getProfile().studentName);
+                        ok.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            workers.add(w);
+            w.start();
+        }
+        for (Thread w : workers) w.join(30_000);
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        int total = threads * rounds;
+        assertEquals(total, ok.get());
+        assertEquals(total, repository.getStartedCount() + repository.getCoalescedCount());
+        // every started fetch is exactly one request on the shared client, nothing else leaks through
+        assertEquals(repository.getStartedCount(), server.getRequestCount());
+        assertEquals(repository.getStartedCount(), client.getRequestCount());
+        assertTrue("barely coalesced: " + repository, repository.getStartedCount() < total / 2);
+        assertTrue(client.getBytesReceived() >= (long) server.getRequestCount() * PAGE.length());
+    }
+
+    @Test
+    public void waitersSurviveTheOwnerBeingCancelled() throws Exception {
+        // the owner's request hangs until it is cancelled; the re-run is answered normally
+        responses = n -> n == 0
+                ? new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE)
+                : new MockResponse().setBody(PAGE).setHeadersDelay(50, TimeUnit.MILLISECONDS);
+
+        Object screen = new Object();
+        AtomicReference<Throwable> ownerFailure = new AtomicReference<>();
+        CountDownLatch ownerDone = new CountDownLatch(1);
+        TaskScheduler.get().submit(TaskScheduler.Lane.USER_VISIBLE, screen, () -> {
+            try {
+                repository.fetchAttendancePage();
+            } catch (Throwable t) {
+                ownerFailure.set(t);
+            }
+            ownerDone.countDown();
+        });
+        server.takeRequest(5, TimeUnit.SECONDS); // the owner's fetch is in flight
+
+        int waiters = 8;
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch waitersDone = new CountDownLatch(waiters);
+        for (int i = 0; i < waiters; i++) {
+            new Thread(() -> {
+                try {
+                    assertEquals("ASHA K", repository.fetchAttendancePage().getProfile().studentName);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+                waitersDone.countDown();
+            }).start();
+        }
+        while (repository.getCoalescedCount() < waiters) Thread.sleep(5); // all attached to the owner
+
+        TaskScheduler.get().cancel(screen);
+
+        assertTrue(ownerDone.await(5, TimeUnit.SECONDS));
+        assertTrue(ownerFailure.get() instanceof IOException);
+        assertTrue(waitersDone.await(5, TimeUnit.SECONDS));
+        assertTrue(failures.toString(), failures.isEmpty());
+        // the waiters re-ran it among themselves instead of once each
+        assertTrue(server.getRequestCount() < 1 + waiters);
+    }
+}
@@ -0,0 +1,114 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Model.PeriodAttendanceItem;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AttendanceSyncStateTest {
+
+    private static PeriodAttendanceItem row(String date, boolean present) {
+        return new PeriodAttendanceItem("Maths", date, "09:00 - 10:00AM", present);
+    }
+
+    private static long at(int year, int month, int day) {
+        Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(year, month - 1, day, 12, 0);
+        return c.getTimeInMillis();
+    }
+
+    private static AttendanceSyncState seeded() {
+        AttendanceSyncState state = new AttendanceSyncState();
+        state.replaceAll("MA101", "Maths", Arrays.asList(row("03-10-2025", true), row("05-11-2025", false)));
+        state.replaceAll("PH102", "Physics", Collections.singletonList(row("06-11-2025", true)));
+        state.markSynced(at(2025, 11, 20));
+        return state;
+    }
+
+    @Test
+    public void replaceAllGroupsRowsByMonth() {
+        AttendanceSyncState state = seeded();
+        assertEquals(2, state.subjects.get("MA101").months.size());
+        assertEquals(1, state.subjects.get("MA101").months.get("2025-10").size());
+        assertEquals("2025-11", state.lastSyncedMonth);
+        assertFalse(state.needsSeed());
+    }
+
+    @Test
+    public void monthsToFetchCoversPreviousAndCurrentMonth() {
+        AttendanceSyncState state = seeded();
+        List<int[]> months = state.monthsToFetch(at(2025, 11, 25));
+        assertEquals(2, months.size());
+        assertArrayEquals(new int[]{2025, 10}, months.get(0));
+        assertArrayEquals(new int[]{2025, 11}, months.get(1));
+    }
+
+    @Test
+    public void monthsToFetchClosesAGapAcrossTheYearBoundary() {
+        AttendanceSyncState state = seeded(); // last synced 2025-11
+        List<int[]> months = state.monthsToFetch(at(2026, 2, 1));
+        assertEquals(5, months.size());
+        assertArrayEquals(new int[]{2025, 10}, months.get(0));
+        assertArrayEquals(new int[]{2026, 1}, months.get(3));
+        assertArrayEquals(new int[]{2026, 2}, months.get(4));
+    }
+
+    @Test
+    public void replaceMonthOverwritesOneMonthOnly() {
+        AttendanceSyncState state = seeded();
+        Map<String, List<PeriodAttendanceItem>> nov = new LinkedHashMap<>();
+        nov.put("MA101", Arrays.asList(row("05-11-2025", true), row("12-11-2025", true)));
+
+        state.replaceMonth(2025, 11, nov, new HashMap<>());
+
+        assertEquals(2, state.subjects.get("MA101").months.get("2025-11").size());
+        assertEquals(1, state.subjects.get("MA101").months.get("2025-10").size());
+        // a well-parsed month without Physics rows means Physics had none that month
+        assertNull(state.subjects.get("PH102").months.get("2025-11"));
+        assertEquals(3, state.flatten("MA101").size());
+    }
+
+    @Test
+    public void replaceMonthAddsSubjectsSeenForTheFirstTime() {
+        AttendanceSyncState state = seeded();
+        Map<String, List<PeriodAttendanceItem>> nov = new LinkedHashMap<>();
+        nov.put("CH103", Collections.singletonList(row("07-11-2025", true)));
+        Map<String, String> names = new HashMap<>();
+        names.put("CH103", "Chemistry");
+
+        state.replaceMonth(2025, 11, nov, names);
+
+        assertEquals("Chemistry", state.subjects.get("CH103").subjectName);
+    }
+
+    @Test
+    public void copyFromDoesNotShareHistoryWithTheSource() {
+        AttendanceSyncState source = seeded();
+        AttendanceSyncState copy = new AttendanceSyncState();
+        copy.copyFrom(source);
+
+        source.replaceMonth(2025, 10, new LinkedHashMap<>(), new HashMap<>());
+        source.subjects.get("PH102").months.get("2025-11").clear();
+
+        assertEquals(1, copy.subjects.get("MA101").months.get("2025-10").size());
+        assertEquals(1, copy.subjects.get("PH102").months.get("2025-11").size());
+    }
+
+    @Test
+    public void jsonRoundTripKeepsHistory() {
+        AttendanceSyncState state = AttendanceSyncState.fromJson(seeded().toJson());
+        assertEquals("2025-11", state.lastSyncedMonth);
+        assertEquals(2, state.flatten("MA101").size());
+        assertTrue(AttendanceSyncState.fromJson("{not json").needsSeed());
+    }
+}
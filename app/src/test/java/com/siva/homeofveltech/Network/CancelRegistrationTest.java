@@ -0,0 +1,119 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Utils.CancellationToken;
+import com.siva.homeofveltech.Utils.TaskScheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/** A request's cancel action lives exactly as long as its response body is open. */
+public class CancelRegistrationTest {
+
+    private static final String PAGE = "<html><body><form>"
+            + "<span id=\"MainContent_lblName\">ASHA K</span>"
+            + "</form></body></html>";
+
+    private MockWebServer server;
+    private final AtomicInteger canceled = new AtomicInteger();
+    private AmsClient ams;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        ams = new AmsClient(TestClients.rewritingTo(server, new EventListener() {
+            @Override
+            public void canceled(Call call) {
+                canceled.incrementAndGet();
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    /** Fetches the profile inside a task, then cancels that task's token once the fetch is over. */
+    private Throwable fetchThenCancel() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        TaskScheduler.get().submit(TaskScheduler.Lane.USER_VISIBLE, this, () -> {
+            try {
+                ams.fetchStudentProfile();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+            CancellationToken.current().cancel();
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return failure.get();
+    }
+
+    @Test
+    public void finishedCallIsUnregistered() throws Exception {
+        server.enqueue(new MockResponse().setBody(PAGE));
+
+        assertNull(fetchThenCancel());
+        assertEquals(0, canceled.get());
+    }
+
+    @Test
+    public void finishedHedgedCallIsUnregistered() throws Exception {
+        ams.setHedgedGets(true);
+        server.enqueue(new MockResponse().setBody(PAGE));
+
+        assertNull(fetchThenCancel());
+        assertEquals(0, canceled.get());
+    }
+
+    @Test
+    public void failedCallIsUnregistered() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertTrue(fetchThenCancel() instanceof IOException);
+        assertEquals(0, canceled.get());
+    }
+
+    @Test
+    public void cancelWhileReadingTheBodyStillCancelsTheCall() throws Exception {
+        StringBuilder slow = new StringBuilder(PAGE);
+        for (int i = 0; i < 200; i++) slow.append("<p>padding padding padding</p>");
+        server.enqueue(new MockResponse().setBody(slow.toString()).throttleBody(64, 50, TimeUnit.MILLISECONDS));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Object tag = new Object();
+        TaskScheduler.get().submit(TaskScheduler.Lane.USER_VISIBLE, tag, () -> {
+            try {
+                ams.fetchStudentProfile();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+            done.countDown();
+        });
+        server.takeRequest(5, TimeUnit.SECONDS);
+        Thread.sleep(200); // headers are in, the body is still trickling
+
+        TaskScheduler.get().cancel(tag);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof IOException);
+        assertTrue(failure.get() instanceof IOException);
+    }
+}
@@ -0,0 +1,187 @@
+package com.siva.homeofveltech.Network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    private static final long OPEN_MS = 100;
+
+    private MockWebServer server;
+    private CircuitBreaker breaker;
+    private OkHttpClient client;
+    private String host;
+    private final List<String> changes = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        host = server.url("/").host();
+        breaker = new CircuitBreaker(OPEN_MS);
+        breaker.addListener((h, from, to) -> changes.add(from + "->" + to));
+        client = new OkHttpClient.Builder().addInterceptor(breaker).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private int get() throws Exception {
+        try (Response res = client.newCall(new Request.Builder().url(server.url("/Attendance.aspx")).build()).execute()) {
+            return res.code();
+        }
+    }
+
+    private void failUntilOpen() throws Exception {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+            assertEquals(500, get());
+        }
+    }
+
+    @Test
+    public void opensAfterThresholdAndFailsFastWithoutTouchingTheServer() throws Exception {
+        failUntilOpen();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(host));
+        try {
+            get();
+            fail("expected the open circuit to reject the request");
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            assertEquals(host, e.host);
+            assertTrue(e.retryAtMillis > System.currentTimeMillis());
+        }
+        assertEquals(CircuitBreaker.FAILURE_THRESHOLD, server.getRequestCount());
+        assertEquals(Collections.singletonList("CLOSED->OPEN"), changes);
+    }
+
+    @Test
+    public void successfulTrialCloses() throws Exception {
+        failUntilOpen();
+        Thread.sleep(OPEN_MS + 20);
+
+        server.enqueue(new MockResponse().setBody("ok"));
+        assertEquals(200, get());
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(host));
+        assertEquals(Arrays.asList("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), changes);
+    }
+
+    @Test
+    public void failedTrialReopensForTwiceAsLong() throws Exception {
+        failUntilOpen();
+        Thread.sleep(OPEN_MS + 20);
+
+        server.enqueue(new MockResponse().setResponseCode(503));
+        assertEquals(503, get());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(host));
+
+        long now = System.currentTimeMillis();
+        try {
+            get();
+            fail("expected the re-opened circuit to reject the request");
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            assertTrue("open period not doubled", e.retryAtMillis - now > OPEN_MS + OPEN_MS / 2);
+        }
+
+        // still open after the first period, half-open again after the doubled one
+        Thread.sleep(OPEN_MS + 20);
+        try {
+            get();
+            fail("expected the doubled open period to still hold");
+        } catch (CircuitBreaker.CircuitOpenException expected) {
+        }
+        Thread.sleep(OPEN_MS);
+        server.enqueue(new MockResponse().setBody("ok"));
+        assertEquals(200, get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(host));
+    }
+
+    @Test
+    public void onlyOneTrialAtATime() throws Exception {
+        failUntilOpen();
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) server.takeRequest();
+        Thread.sleep(OPEN_MS + 20);
+
+        server.enqueue(new MockResponse().setBody("ok").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        CountDownLatch trialDone = new CountDownLatch(1);
+        Thread trial = new Thread(() -> {
+            try {
+                get();
+            } catch (Exception ignored) {
+            }
+            trialDone.countDown();
+        });
+        trial.start();
+        server.takeRequest(5, TimeUnit.SECONDS); // the trial is at the server
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(host));
+        try {
+            get();
+            fail("a second request went through while the trial was running");
+        } catch (CircuitBreaker.CircuitOpenException expected) {
+        }
+
+        assertTrue(trialDone.await(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(host));
+    }
+
+    @Test
+    public void successResetsTheFailureCount() throws Exception {
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD - 1; i++) {
+                server.enqueue(new MockResponse().setResponseCode(502));
+                get();
+            }
+            server.enqueue(new MockResponse().setResponseCode(404)); // client errors are not outages
+            assertEquals(404, get());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(host));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void cancelledCallsDoNotCount() throws Exception {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+            Call call = client.newCall(new Request.Builder().url(server.url("/")).build());
+            Thread canceller = new Thread(() -> {
+                try {
+                    server.takeRequest(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                call.cancel();
+            });
+            canceller.start();
+            try {
+                call.execute().close();
+                fail("expected the cancelled call to fail");
+            } catch (IOException expected) {
+            }
+            canceller.join();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(host));
+    }
+}
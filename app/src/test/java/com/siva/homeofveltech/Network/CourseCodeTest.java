@@ -0,0 +1,38 @@
+package com.siva.homeofveltech.Network;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** {@link AmsClient#courseCodeOf} on MainContent_Courselist values. */
+public class CourseCodeTest {
+
+    private static final List<String> KNOWN = Arrays.asList("CS-101", "CS", "MA102");
+
+    @Test
+    public void knownCodesContainingADashStayWhole() {
+        assertEquals("CS-101", AmsClient.courseCodeOf("CS-101-Data Structures", KNOWN));
+    }
+
+    @Test
+    public void longestKnownPrefixWins() {
+        assertEquals("CS", AmsClient.courseCodeOf("CS-Seminar", KNOWN));
+        assertEquals("MA102", AmsClient.courseCodeOf("MA102-Calculus - II", KNOWN));
+    }
+
+    @Test
+    public void unknownCoursesFallBackToTheFirstDash() {
+        assertEquals("PH103", AmsClient.courseCodeOf("PH103-Physics", KNOWN));
+        assertEquals("PH103", AmsClient.courseCodeOf("PH103-Physics", Collections.emptyList()));
+    }
+
+    @Test
+    public void valuesWithoutACodeAreSkipped() {
+        assertNull(AmsClient.courseCodeOf("Select Course", KNOWN));
+        assertNull(AmsClient.courseCodeOf("-Physics", KNOWN));
+    }
+}
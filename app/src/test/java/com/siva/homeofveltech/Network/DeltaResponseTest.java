@@ -0,0 +1,112 @@
+package com.siva.homeofveltech.Network;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DeltaResponseTest {
+
+    /** One {@code length|type|id|content|} entry, length in UTF-16 chars as ASP.NET writes it. */
+    private static String entry(String type, String id, String content) {
+        return content.length() + "|" + type + "|" + id + "|" + content + "|";
+    }
+
+    @Test
+    public void indexesPanelsAndHiddenFields() {
+        String body = entry("updatePanel", "MainContent_UpdatePanel1", "<table id=\"g\"></table>")
+                + entry("hiddenField", "__VIEWSTATE", "vs2")
+                + entry("hiddenField", "__EVENTVALIDATION", "ev2")
+                + entry("asyncPostBackControlIDs", "", "");
+
+        DeltaResponse delta = DeltaResponse.parse(body);
+
+        assertTrue(delta.isComplete());
+        assertEquals("<table id=\"g\"></table>", delta.updatePanel("MainContent_UpdatePanel1"));
+        assertNull(delta.updatePanel("MainContent_UpdatePanel2"));
+        assertEquals("vs2", delta.hiddenFields().get("__VIEWSTATE"));
+        assertEquals("ev2", delta.hiddenFields().get("__EVENTVALIDATION"));
+        assertEquals("", delta.first("asyncPostBackControlIDs"));
+    }
+
+    @Test
+    public void pipesInsideContentFollowTheDeclaredLength() {
+        String html = "<td>A|B</td><td>|||</td>";
+        String body = entry("updatePanel", "p", html) + entry("hiddenField", "__VIEWSTATE", "x|y");
+
+        DeltaResponse delta = DeltaResponse.parse(body);
+
+        assertTrue(delta.isComplete());
+        assertEquals(html, delta.updatePanel("p"));
+        assertEquals("x|y", delta.hiddenFields().get("__VIEWSTATE"));
+    }
+
+    @Test
+    public void lengthCountsUtf16CharsNotBytes() {
+        String html = "<span>Tamil தமிழ் 😀</span>";
+        DeltaResponse delta = DeltaResponse.parse(entry("updatePanel", "p", html));
+
+        assertTrue(delta.isComplete());
+        assertEquals(html, delta.updatePanel("p"));
+    }
+
+    @Test
+    public void fullHtmlPageIsIncomplete() {
+        DeltaResponse delta = DeltaResponse.parse("<html><body><input name=\"txtUserName\"></body></html>");
+
+        assertFalse(delta.isComplete());
+        assertNull(delta.first("pageRedirect"));
+        assertTrue(delta.hiddenFields().isEmpty());
+    }
+
+    @Test
+    public void truncatedBodyKeepsEntriesBeforeTheBreak() {
+        String body = entry("hiddenField", "__VIEWSTATE", "vs") + "40|updatePanel|p|<table>cut off";
+
+        DeltaResponse delta = DeltaResponse.parse(body);
+
+        assertFalse(delta.isComplete());
+        assertEquals("vs", delta.hiddenFields().get("__VIEWSTATE"));
+        assertNull(delta.updatePanel("p"));
+    }
+
+    @Test
+    public void wrongLengthIsIncomplete() {
+        assertFalse(DeltaResponse.parse("3|updatePanel|p|abcd|").isComplete());
+        assertFalse(DeltaResponse.parse("-1|updatePanel|p||").isComplete());
+        assertFalse(DeltaResponse.parse("x|updatePanel|p||").isComplete());
+    }
+
+    @Test
+    public void emptyAndNullBodiesAreCompleteAndEmpty() {
+        assertTrue(DeltaResponse.parse("").isComplete());
+        assertTrue(DeltaResponse.parse(null).isComplete());
+        assertNull(DeltaResponse.parse(null).first("updatePanel"));
+    }
+
+    @Test
+    public void redirectAndErrorEntriesAreFound() {
+        DeltaResponse redirect = DeltaResponse.parse(entry("pageRedirect", "", "%2findex.aspx"));
+        DeltaResponse error = DeltaResponse.parse(entry("error", "500", "Server error"));
+
+        assertEquals("%2findex.aspx", redirect.first("pageRedirect"));
+        assertEquals("Server error", error.first("error"));
+        assertNull(error.first("pageRedirect"));
+    }
+
+    @Test
+    public void mergeOverridesOnlyTheFieldsThisResponseCarries() {
+        Map<String, String> prev = new LinkedHashMap<>();
+        prev.put("__VIEWSTATE", "old");
+        prev.put("__EVENTTARGET", "");
+        DeltaResponse delta = DeltaResponse.parse(entry("hiddenField", "__VIEWSTATE", "new"));
+
+        Map<String, String> merged = delta.mergeHiddenFields(prev);
+
+        assertEquals("new", merged.get("__VIEWSTATE"));
+        assertEquals("", merged.get("__EVENTTARGET"));
+        assertEquals("old", prev.get("__VIEWSTATE"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.siva.homeofveltech.Network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import okhttp3.ConnectionSpec;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.TlsVersion;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+import static org.junit.Assert.*;
+
+/** Against a local TLS MockWebServer; TLS 1.2 so the JDK resumes by session id. */
+public class HandshakeCounterTest {
+
+    private MockWebServer server;
+    private HandshakeCounter counter;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        HeldCertificate localhost = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .build();
+        HandshakeCertificates serverCerts = new HandshakeCertificates.Builder()
+                .heldCertificate(localhost)
+                .build();
+        HandshakeCertificates clientCerts = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(localhost.certificate())
+                .build();
+
+        server = new MockWebServer();
+        server.useHttps(serverCerts.sslSocketFactory(), false);
+        server.start();
+
+        counter = new HandshakeCounter();
+        client = new OkHttpClient.Builder()
+                .sslSocketFactory(clientCerts.sslSocketFactory(), clientCerts.trustManager())
+                .connectionSpecs(Collections.singletonList(new ConnectionSpec.Builder(ConnectionSpec.MODERN_TLS)
+                        .tlsVersions(TlsVersion.TLS_1_2)
+                        .build()))
+                .eventListenerFactory(counter)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private void get() throws Exception {
+        server.enqueue(new MockResponse().setBody("ok"));
+        Request req = new Request.Builder().url(server.url("/").newBuilder().host("localhost").build()).build();
+        try (Response res = client.newCall(req).execute()) {
+            assertEquals("ok", res.body().string());
+        }
+    }
+
+    @Test
+    public void firstConnectionIsAFullHandshake() throws Exception {
+        get();
+        assertEquals(1, counter.getFullHandshakeCount());
+        assertEquals(0, counter.getResumedHandshakeCount());
+    }
+
+    @Test
+    public void pooledConnectionIsNotCounted() throws Exception {
+        get();
+        get();
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, counter.getFullHandshakeCount() + counter.getResumedHandshakeCount());
+    }
+
+    @Test
+    public void newConnectionResumesTheCachedSession() throws Exception {
+        get();
+        client.connectionPool().evictAll();
+        get();
+        client.connectionPool().evictAll();
+        get();
+
+        assertEquals(1, counter.getFullHandshakeCount());
+        assertEquals(2, counter.getResumedHandshakeCount());
+        assertEquals("tlsFull=1, tlsResumed=2", counter.toString());
+    }
+}
@@ -0,0 +1,100 @@
+package com.siva.homeofveltech.Network;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class HtmlExtractorTest {
+
+    private static final Set<String> IDS = new HashSet<>(Arrays.asList("MainContent_YoPList", "MainContent_GridView1"));
+
+    /** SemesterMark.aspx shape: two UpdatePanels, YoPList nested in a layout table inside the second. */
+    private static final String PAGE = "<html><body><form id=\"form1\">"
+            + "<input type=\"hidden\" name=\"__VIEWSTATE\" value=\"vs\"/>"
+            + "<script type=\"text/javascript\">Sys.WebForms.PageRequestManager._initialize("
+            + "'ctl00$ScriptManager1', 'form1', ['tctl00$MainContent$UpdatePanel1','MainContent_UpdatePanel1',"
+            + "'tctl00$MainContent$UpdatePanel2','MainContent_UpdatePanel2'], [], [], 90, 'ctl00');</script>"
+            + "<div id=\"MainContent_UpdatePanel1\"><span>Student</span></div>"
+            + "<div id=\"MainContent_UpdatePanel2\"><table><tr><td>Year</td><td>"
+            + "<select id=\"MainContent_YoPList\"><option value=\"Nov.2025\">Nov.2025</option></select>"
+            + "</td></tr></table>"
+            + "<table id=\"MainContent_GridView1\"><tr><th>Course</th></tr><tr><td>Maths</td></tr></table>"
+            + "<p>footer</p></div>"
+            + "<input type=\"hidden\" name=\"__EVENTVALIDATION\" value=\"ev\"/>"
+            + "<div id=\"tail\">never read</div>"
+            + "</form></body></html>";
+
+    @Test
+    public void keepsWantedElementsAndHiddenFields() throws Exception {
+        HtmlExtractor.Result page = HtmlExtractor.extract(PAGE, IDS);
+
+        assertEquals("vs", page.hiddenFields.get("__VIEWSTATE"));
+        assertEquals("ev", page.hiddenFields.get("__EVENTVALIDATION"));
+        assertEquals("Nov.2025", page.get("MainContent_YoPList").select("option").attr("value"));
+        assertEquals(2, page.get("MainContent_GridView1").select("tr").size());
+        assertNull(page.get("tail"));
+        assertFalse(page.loginForm);
+    }
+
+    @Test
+    public void stopsOnceEverythingWantedWasSeen() throws Exception {
+        assertTrue(HtmlExtractor.extract(PAGE, IDS).stoppedEarly);
+        assertFalse(HtmlExtractor.extract(PAGE, Collections.singleton("missing")).stoppedEarly);
+    }
+
+    @Test
+    public void ancestorsOfWantedElementsSurvivePruning() throws Exception {
+        HtmlExtractor.Result page = HtmlExtractor.extract(PAGE, IDS);
+        Element yop = page.get("MainContent_YoPList");
+
+        Element panel = yop.parent();
+        while (panel != null && !panel.id().equals("MainContent_UpdatePanel2")) panel = panel.parent();
+        assertNotNull(panel);
+        // siblings that were never wanted are still dropped
+        assertTrue(panel.select("p").isEmpty());
+    }
+
+    @Test
+    public void asyncPostBackFindsTheContainingUpdatePanel() throws Exception {
+        HtmlExtractor.Result page = HtmlExtractor.extract(PAGE, IDS);
+        AsyncPostBack async = AsyncPostBack.parse(page.pageRequestManagerInit);
+
+        assertNotNull(async);
+        assertEquals("ctl00$ScriptManager1", async.scriptManagerId);
+        assertEquals(Arrays.asList("ctl00$MainContent$UpdatePanel1", "ctl00$MainContent$UpdatePanel2"), async.panelUniqueIds);
+        assertEquals("ctl00$MainContent$UpdatePanel2", async.panelFor(page.get("MainContent_YoPList")));
+    }
+
+    @Test
+    public void detectsTheLoginForm() throws Exception {
+        String login = "<form><input type=\"text\" name=\"txtUserName\"/></form>";
+        assertTrue(HtmlExtractor.extract(login, Collections.singleton("txtUserName")).loginForm);
+    }
+
+    @Test
+    public void comparisonWithTheFullDomRunsBothParsers() throws Exception {
+        StringBuilder big = new StringBuilder("<html><body><form>");
+        big.append("<input type=\"hidden\" name=\"__VIEWSTATE\" value=\"");
+        for (int i = 0; i < 20_000; i++) big.append("AbCd");
+        big.append("\"/><select id=\"MainContent_YoPList\"><option value=\"Nov.2025\">x</option></select>");
+        for (int i = 0; i < 2_000; i++) big.append("<div><span>row ").append(i).append("</span></div>");
+        big.append("<table id=\"MainContent_GridView1\"><tr><td>1</td></tr></table>");
+        big.append("<input type=\"hidden\" name=\"__EVENTVALIDATION\" value=\"ev\"/></form></body></html>");
+        String html = big.toString();
+
+        HtmlExtractor.Comparison c = HtmlExtractor.compareWithDom(html, IDS);
+        assertTrue(c.toString(), c.domNanos > 0 && c.streamNanos > 0);
+
+        // both parsers read the whole text; the streamed tree keeps only the wanted path
+        Element root = HtmlExtractor.extract(html, IDS).get("MainContent_YoPList").root();
+        assertTrue(root.getAllElements().size() < 20);
+        assertTrue(Jsoup.parse(html).getAllElements().size() > 4_000);
+    }
+}
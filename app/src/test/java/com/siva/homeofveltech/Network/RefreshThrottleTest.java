@@ -0,0 +1,141 @@
+package com.siva.homeofveltech.Network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class RefreshThrottleTest {
+
+    private static final int FLEET = 5000;
+
+    /** Stable pseudo-random install ids, as PrefsManager would mint them. */
+    private static List<String> installIds(int n) {
+        Random rnd = new Random(42);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add(new UUID(rnd.nextLong(), rnd.nextLong()).toString());
+        return ids;
+    }
+
+    /** Chi-square statistic of {@code values} in [0, 1) over {@code buckets} equal buckets. */
+    private static double chiSquare(List<Double> values, int buckets) {
+        int[] counts = new int[buckets];
+        for (double v : values) counts[(int) (v * buckets)]++;
+        double expected = (double) values.size() / buckets;
+        double chi = 0;
+        for (int c : counts) chi += (c - expected) * (c - expected) / expected;
+        return chi;
+    }
+
+    /** One throttle per simulated install, with the install's slot fixed. */
+    private static List<RefreshThrottle> fleet(int n) {
+        List<RefreshThrottle> out = new ArrayList<>();
+        for (String id : installIds(n)) {
+            RefreshThrottle t = new RefreshThrottle();
+            t.setInstallId(id);
+            out.add(t);
+        }
+        return out;
+    }
+
+    /** Most refreshes that start within any one second, for the given start delays. */
+    private static int peakPerSecond(List<Long> delaysMs) {
+        long max = 0;
+        for (long d : delaysMs) max = Math.max(max, d);
+        int[] perSecond = new int[(int) (max / 1000) + 1];
+        int peak = 0;
+        for (long d : delaysMs) peak = Math.max(peak, ++perSecond[(int) (d / 1000)]);
+        return peak;
+    }
+
+    @Test
+    public void slotIsStableAndInRange() {
+        for (String id : installIds(100)) {
+            double s = RefreshThrottle.slotOf(id);
+            assertTrue(s >= 0 && s < 1);
+            assertEquals(s, RefreshThrottle.slotOf(id), 0);
+        }
+    }
+
+    @Test
+    public void randomIdsSpreadUniformly() {
+        List<Double> slots = new ArrayList<>();
+        for (String id : installIds(FLEET)) slots.add(RefreshThrottle.slotOf(id));
+
+        // 19 degrees of freedom: 43.8 is the 0.1% critical value
+        assertTrue(chiSquare(slots, 20) < 43.8);
+    }
+
+    @Test
+    public void nearlyIdenticalIdsSpreadUniformly() {
+        List<Double> slots = new ArrayList<>();
+        for (int i = 0; i < FLEET; i++) slots.add(RefreshThrottle.slotOf(String.format("install-%06d", i)));
+
+        assertTrue(chiSquare(slots, 20) < 43.8);
+    }
+
+    @Test
+    public void coldStartWaveIsSpreadAcrossTheWindow() {
+        List<Long> delays = new ArrayList<>();
+        for (RefreshThrottle t : fleet(FLEET)) {
+            long d = t.backgroundDelayMs();
+            assertTrue(d >= 0 && d < RefreshThrottle.JITTER_WINDOW_MS);
+            delays.add(d);
+        }
+
+        // FLEET installs opened in the same second would all crawl at once without the throttle
+        double mean = FLEET / (RefreshThrottle.JITTER_WINDOW_MS / 1000.0);
+        int peak = peakPerSecond(delays);
+        assertTrue("peak " + peak + "/s vs mean " + mean + "/s", peak < 2 * mean);
+    }
+
+    @Test
+    public void overloadWidensTheWindowAndKeepsAFloor() {
+        List<Long> delays = new ArrayList<>();
+        for (RefreshThrottle t : fleet(FLEET)) {
+            t.onOverload(-1);
+            long d = t.backgroundDelayMs();
+            // level 1: window doubled, nobody earlier than half of it
+            assertTrue(d >= RefreshThrottle.JITTER_WINDOW_MS && d < 2 * RefreshThrottle.JITTER_WINDOW_MS);
+            delays.add(d - RefreshThrottle.JITTER_WINDOW_MS);
+        }
+
+        double mean = FLEET / (RefreshThrottle.JITTER_WINDOW_MS / 1000.0);
+        assertTrue(peakPerSecond(delays) < 2 * mean);
+    }
+
+    @Test
+    public void repeatedOverloadIsCapped() {
+        RefreshThrottle t = new RefreshThrottle();
+        t.setInstallId("install-a");
+        for (int i = 0; i < 10; i++) t.onOverload(-1);
+
+        long d = t.backgroundDelayMs();
+        assertTrue(d >= Math.min(RefreshThrottle.MAX_DELAY_MS, (RefreshThrottle.JITTER_WINDOW_MS << RefreshThrottle.MAX_LEVEL) / 2));
+        assertTrue(d <= RefreshThrottle.MAX_DELAY_MS);
+    }
+
+    @Test
+    public void retryAfterIsWaitedOut() {
+        RefreshThrottle t = new RefreshThrottle();
+        t.setInstallId("install-a");
+        t.onOverload(5 * 60_000);
+
+        assertTrue(t.backgroundDelayMs() > 5 * 60_000 - 1000);
+    }
+
+    @Test
+    public void openingCircuitCountsAsOverload() {
+        RefreshThrottle t = new RefreshThrottle();
+        t.setInstallId("install-a");
+        t.onStateChanged("ams.veltech.edu.in", CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED);
+        assertTrue(t.backgroundDelayMs() < RefreshThrottle.JITTER_WINDOW_MS);
+
+        t.onStateChanged("ams.veltech.edu.in", CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN);
+        assertTrue(t.backgroundDelayMs() >= RefreshThrottle.JITTER_WINDOW_MS);
+    }
+}
@@ -0,0 +1,171 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Utils.CancellationToken;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+public class RequestHedgerTest {
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private RequestHedger hedger;
+    private final AtomicInteger canceled = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient.Builder()
+                .eventListener(new EventListener() {
+                    @Override
+                    public void canceled(Call call) {
+                        canceled.incrementAndGet();
+                    }
+                })
+                .build();
+        hedger = new RequestHedger();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private Request get(String path) {
+        return new Request.Builder().url(server.url(path)).build();
+    }
+
+    private String fetch(String path) throws IOException {
+        try (Response res = hedger.execute(client, get(path), CancellationToken.NONE)) {
+            return res.body().string();
+        }
+    }
+
+    /** Enough fast requests to leave the default delay and to earn one hedge under the ratio cap. */
+    private void warmUp() throws IOException {
+        int n = (int) Math.round(1 / RequestHedger.MAX_HEDGE_RATIO) - 1;
+        for (int i = 0; i < n; i++) {
+            server.enqueue(new MockResponse().setBody("fast"));
+            assertEquals("fast", fetch("/warm"));
+        }
+    }
+
+    @Test
+    public void fastResponseIsNotHedged() throws Exception {
+        server.enqueue(new MockResponse().setBody("page"));
+
+        assertEquals("page", fetch("/Attendance.aspx"));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, hedger.getHedgeCount());
+    }
+
+    @Test
+    public void delayTracksRecentLatencyOnceWarm() throws Exception {
+        assertEquals(RequestHedger.DEFAULT_DELAY_MS, hedger.currentDelayMs());
+        warmUp();
+        assertEquals(RequestHedger.MIN_DELAY_MS, hedger.currentDelayMs()); // local responses clamp to the floor
+    }
+
+    @Test
+    public void slowPrimaryIsHedgedAndTheHedgeWins() throws Exception {
+        warmUp();
+        server.enqueue(new MockResponse().setBody("primary").setHeadersDelay(3, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody("hedge"));
+
+        long start = System.nanoTime();
+        assertEquals("hedge", fetch("/Attendance.aspx"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertEquals(1, hedger.getHedgeCount());
+        assertEquals(1, hedger.getHedgeWinCount());
+        assertEquals(1, canceled.get()); // the slow primary
+    }
+
+    @Test
+    public void hedgeCannotOvertakeBehindASessionLock() throws Exception {
+        warmUp();
+        // like ASP.NET session state: one request per session at a time, in arrival order
+        AtomicInteger n = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public synchronized MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                // each request renders while holding the lock; the slow original holds it longest
+                boolean first = n.getAndIncrement() == 0;
+                Thread.sleep(first ? 800 : 200);
+                return new MockResponse().setBody(first ? "primary" : "hedge");
+            }
+        });
+
+        assertEquals("primary", fetch("/Attendance.aspx"));
+        assertEquals(1, hedger.getHedgeCount());
+        assertEquals(0, hedger.getHedgeWinCount());
+    }
+
+    @Test
+    public void hedgesAreCappedByRatio() throws Exception {
+        warmUp();
+        server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(600, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody("hedge"));
+        assertEquals("hedge", fetch("/a"));
+
+        // the one hedge the request count allows is spent: the next slow GET just waits
+        server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(600, TimeUnit.MILLISECONDS));
+        assertEquals("slow", fetch("/b"));
+        assertEquals(1, hedger.getHedgeCount());
+    }
+
+    @Test
+    public void cancellingTheTokenCancelsPrimaryAndHedge() throws Exception {
+        warmUp();
+        server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(5, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(5, TimeUnit.SECONDS));
+        CancellationToken token = CancellationToken.NONE.child();
+        int before = server.getRequestCount();
+
+        CountDownLatch failed = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            try {
+                hedger.execute(client, get("/Attendance.aspx"), token).close();
+            } catch (IOException e) {
+                failed.countDown();
+            }
+        });
+        caller.start();
+        while (server.getRequestCount() < before + 2) Thread.sleep(10); // primary and hedge both sent
+
+        token.cancel();
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, canceled.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void postsAreRefused() throws Exception {
+        Request post = new Request.Builder()
+                .url(server.url("/Attendance.aspx"))
+                .post(RequestBody.create("__EVENTTARGET=x", MediaType.get("application/x-www-form-urlencoded")))
+                .build();
+        hedger.execute(client, post, CancellationToken.NONE);
+    }
+}
@@ -0,0 +1,112 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Model.SemesterResult;
+import com.siva.homeofveltech.Model.SubjectGrade;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResultsSyncStateTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final List<String> PERIODS = Arrays.asList("Nov.2024", "May.2025", "Nov.2025");
+
+    private static List<SemesterResult> results(String sem, String grade) {
+        return new ArrayList<>(Collections.singletonList(
+                new SemesterResult(sem, 8.5, Collections.singletonList(new SubjectGrade("Maths", grade)))));
+    }
+
+    private static ResultsSyncState allRecorded(long at) {
+        ResultsSyncState state = new ResultsSyncState();
+        state.record("Nov.2024", results("Sem 1", "A"), at);
+        state.record("May.2025", results("Sem 2", "B"), at);
+        state.record("Nov.2025", results("Sem 3", "O"), at);
+        return state;
+    }
+
+    @Test
+    public void everythingIsFetchedOnFirstSync() {
+        assertEquals(PERIODS, new ResultsSyncState().periodsToFetch(PERIODS, 0));
+    }
+
+    @Test
+    public void onlyTheNewestPeriodIsRefetchedInsideTheRevisionWindow() {
+        ResultsSyncState state = allRecorded(0);
+        assertEquals(Collections.singletonList("Nov.2025"), state.periodsToFetch(PERIODS, DAY));
+        assertTrue(state.periodsToFetch(PERIODS, ResultsSyncState.REVISION_WINDOW_MS + DAY).isEmpty());
+    }
+
+    @Test
+    public void aChangedDigestReopensTheRevisionWindow() {
+        ResultsSyncState state = allRecorded(0);
+        long later = ResultsSyncState.REVISION_WINDOW_MS - DAY;
+        state.record("Nov.2025", results("Sem 3", "A+"), later);
+        assertEquals(Collections.singletonList("Nov.2025"),
+                state.periodsToFetch(PERIODS, ResultsSyncState.REVISION_WINDOW_MS + DAY));
+
+        // same grades again: changedAt stays
+        state.record("Nov.2025", results("Sem 3", "A+"), later + DAY);
+        assertEquals(later, state.periods.get("Nov.2025").changedAt);
+    }
+
+    @Test
+    public void periodsRecordedWithoutResultsAreRefetchedInsideTheRevisionWindow() {
+        ResultsSyncState state = allRecorded(0);
+        state.record("Nov.2024", new ArrayList<>(), 0);
+        assertEquals(Arrays.asList("Nov.2024", "Nov.2025"), state.periodsToFetch(PERIODS, DAY));
+
+        // still empty on every refresh: done once the window is over, like a published period
+        state.record("Nov.2024", new ArrayList<>(), ResultsSyncState.REVISION_WINDOW_MS);
+        assertTrue(state.periodsToFetch(PERIODS, ResultsSyncState.REVISION_WINDOW_MS + DAY).isEmpty());
+    }
+
+    @Test
+    public void periodsWithNoStoredResultsAreAlwaysFetched() {
+        ResultsSyncState state = allRecorded(0);
+        state.periods.get("May.2025").results = null;
+        assertEquals(Collections.singletonList("May.2025"),
+                state.periodsToFetch(PERIODS, ResultsSyncState.REVISION_WINDOW_MS + DAY));
+    }
+
+    @Test
+    public void retainAndCollectDropsWithdrawnPeriods() {
+        ResultsSyncState state = allRecorded(0);
+        List<List<SemesterResult>> out = state.retainAndCollect(Arrays.asList("May.2025", "Nov.2025"));
+        assertEquals(2, out.size());
+        assertEquals("Sem 2", out.get(0).get(0).semesterName);
+        assertFalse(state.periods.containsKey("Nov.2024"));
+    }
+
+    @Test
+    public void newestPeriodOrdersByYearThenMonth() {
+        assertEquals("Nov.2025", ResultsSyncState.newestPeriod(Arrays.asList("May.2025", "Nov.2025", "Dec.2024")));
+        assertEquals("Jan.2026", ResultsSyncState.newestPeriod(Arrays.asList("Dec.2025", "Jan.2026")));
+    }
+
+    @Test
+    public void copyFromDoesNotShareEntriesWithTheSource() {
+        ResultsSyncState source = allRecorded(0);
+        ResultsSyncState copy = new ResultsSyncState();
+        copy.copyFrom(source);
+
+        source.record("Nov.2025", results("Sem 3", "F"), DAY);
+        source.periods.get("May.2025").results.clear();
+
+        assertEquals(0, copy.periods.get("Nov.2025").fetchedAt);
+        assertEquals(1, copy.periods.get("May.2025").results.size());
+    }
+
+    @Test
+    public void jsonRoundTripKeepsEntries() {
+        ResultsSyncState state = ResultsSyncState.fromJson(allRecorded(5).toJson());
+        assertEquals(3, state.periods.size());
+        assertEquals(5, state.periods.get("May.2025").fetchedAt);
+        assertTrue(ResultsSyncState.fromJson("[]").periods.isEmpty());
+    }
+}
@@ -0,0 +1,151 @@
+package com.siva.homeofveltech.Network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+public class RetryInterceptorTest {
+
+    private MockWebServer server;
+    private RetryInterceptor retry;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        retry = new RetryInterceptor();
+        client = new OkHttpClient.Builder()
+                .addInterceptor(retry)
+                .retryOnConnectionFailure(false) // only the interceptor may retry
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    /** Not 503: OkHttp itself re-sends a 503 carrying Retry-After: 0, which would hide the interceptor. */
+    private static MockResponse transientFailure(int code) {
+        return new MockResponse().setResponseCode(code).setHeader("Retry-After", "0");
+    }
+
+    private static String httpDate(long millis) {
+        SimpleDateFormat f = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        f.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return f.format(new Date(millis));
+    }
+
+    private int get() throws Exception {
+        try (Response res = client.newCall(new Request.Builder().url(server.url("/Attendance.aspx")).build()).execute()) {
+            return res.code();
+        }
+    }
+
+    @Test
+    public void transientStatusIsRetriedUntilSuccess() throws Exception {
+        server.enqueue(transientFailure(502));
+        server.enqueue(transientFailure(429));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        assertEquals(200, get());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, retry.getRetryCount());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws Exception {
+        for (int i = 0; i < RetryInterceptor.MAX_ATTEMPTS + 1; i++) server.enqueue(transientFailure(502));
+
+        assertEquals(502, get());
+        assertEquals(RetryInterceptor.MAX_ATTEMPTS, server.getRequestCount());
+    }
+
+    @Test
+    public void connectionDropIsRetriedWithBackoff() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        assertEquals(200, get());
+        assertEquals(1, retry.getRetryCount());
+    }
+
+    @Test
+    public void postsAreNeverRetried() throws Exception {
+        server.enqueue(transientFailure(504));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        Request post = new Request.Builder()
+                .url(server.url("/Attendance.aspx"))
+                .post(RequestBody.create("__EVENTTARGET=x", MediaType.get("application/x-www-form-urlencoded")))
+                .build();
+        try (Response res = client.newCall(post).execute()) {
+            assertEquals(504, res.code());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, retry.getRetryCount());
+    }
+
+    @Test
+    public void nonTransientStatusIsReturnedAsIs() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertEquals(500, get());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void longRetryAfterIsNotWaitedOut() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "120"));
+
+        long start = System.currentTimeMillis();
+        assertEquals(503, get());
+        assertTrue(System.currentTimeMillis() - start < RetryInterceptor.MAX_RETRY_AFTER_MS);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void retryAfterParsesSecondsAndHttpDates() {
+        Request req = new Request.Builder().url(server.url("/")).build();
+        Response seconds = new Response.Builder().request(req).protocol(Protocol.HTTP_1_1)
+                .code(503).message("").header("Retry-After", "7").build();
+        Response date = seconds.newBuilder()
+                .header("Retry-After", httpDate(System.currentTimeMillis() + 30_000))
+                .build();
+        Response junk = seconds.newBuilder().header("Retry-After", "soon").build();
+
+        assertEquals(7_000, RetryInterceptor.retryAfterMs(seconds));
+        long fromDate = RetryInterceptor.retryAfterMs(date);
+        assertTrue(fromDate > 25_000 && fromDate <= 30_000);
+        assertEquals(-1, RetryInterceptor.retryAfterMs(junk));
+    }
+
+    @Test
+    public void backoffStaysWithinTheJitterCap() {
+        for (int attempt = 1; attempt <= 8; attempt++) {
+            long cap = Math.min(RetryInterceptor.MAX_DELAY_MS, RetryInterceptor.BASE_DELAY_MS << (attempt - 1));
+            for (int i = 0; i < 200; i++) {
+                long d = RetryInterceptor.backoffMs(attempt);
+                assertTrue(d >= 0 && d <= cap);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.siva.homeofveltech.Network;
+
+import com.siva.homeofveltech.Model.PeriodAttendanceItem;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/** {@link AmsClient#splitAttendanceByCourse} against month-wise GridView1 markup. */
+public class SplitAttendanceByCourseTest {
+
+    private static final Set<String> KNOWN = new HashSet<>(Arrays.asList("CS-101", "MA102", "PH103"));
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = SplitAttendanceByCourseTest.class.getResourceAsStream("/fixtures/" + name)) {
+            assertNotNull("missing fixture " + name, in);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String grid(String... rows) {
+        StringBuilder sb = new StringBuilder("<div id=\"MainContent_UpdatePanel6\"><table id=\"MainContent_GridView1\">");
+        for (String r : rows) sb.append(r);
+        return sb.append("</table></div>").toString();
+    }
+
+    private static Map<String, List<PeriodAttendanceItem>> split(String html, Map<String, String> names) throws IOException {
+        Map<String, List<PeriodAttendanceItem>> out = new LinkedHashMap<>();
+        AmsClient.splitAttendanceByCourse(html, names, KNOWN, out);
+        return out;
+    }
+
+    @Test
+    public void monthWiseGridIsSplitPerCourse() throws Exception {
+        Map<String, String> names = new HashMap<>();
+        names.put("CS-101", "Data Structures");
+
+        Map<String, List<PeriodAttendanceItem>> out = split(fixture("attendance_monthwise.html"), names);
+
+        assertEquals(Arrays.asList("CS-101", "MA102"), Arrays.asList(out.keySet().toArray()));
+        List<PeriodAttendanceItem> ds = out.get("CS-101");
+        assertEquals(2, ds.size());
+        assertEquals("Data Structures", ds.get(0).courseName); // grid name replaced by the summary's
+        assertEquals("03/11/2025", ds.get(0).date);              // time part dropped
+        assertEquals("09:00 - 09:50AM", ds.get(0).timeSlot);
+        assertTrue(ds.get(0).present);
+        assertTrue(ds.get(1).present);                           // "p" counts as present too
+
+        PeriodAttendanceItem calc = out.get("MA102").get(0);
+        assertEquals("CALCULUS", calc.courseName);               // no summary name: grid name
+        assertFalse(calc.present);
+    }
+
+    @Test
+    public void columnsAreFoundFromTheHeaderInAnyOrder() throws Exception {
+        String html = grid(
+                "<tr><th>Status</th><th>Date</th><th>Hour</th><th>Subject</th><th>Code</th></tr>",
+                "<tr><td>A</td><td>05-11-2025</td><td>2</td><td>Physics</td><td>PH103</td></tr>");
+
+        PeriodAttendanceItem item = split(html, new HashMap<>()).get("PH103").get(0);
+        assertEquals("Physics", item.courseName);
+        assertEquals("05-11-2025", item.date);
+        assertEquals("2", item.timeSlot);
+        assertFalse(item.present);
+    }
+
+    @Test
+    public void headerlessGridUsesTheCourseWiseLayout() throws Exception {
+        String html = grid(
+                "<tr><td>#</td></tr>",
+                "<tr><td>1</td><td>MA102</td><td>Calculus</td><td>x</td><td>06-11-2025</td><td>3</td><td>P</td></tr>");
+
+        PeriodAttendanceItem item = split(html, new HashMap<>()).get("MA102").get(0);
+        assertEquals("06-11-2025", item.date);
+        assertEquals("3", item.timeSlot);
+        assertTrue(item.present);
+    }
+
+    @Test
+    public void noGridMeansNoRows() throws Exception {
+        assertTrue(split("<div id=\"MainContent_UpdatePanel6\"><span>No Records Found</span></div>", new HashMap<>()).isEmpty());
+        assertTrue(split(grid("<tr><th>Course Code</th></tr>"), new HashMap<>()).isEmpty());
+    }
+
+    @Test
+    public void rowsWithoutAnyKnownCourseCodeAreRejected() {
+        // a layout whose code column is not where the parser looks: must not read as "no attendance"
+        String html = grid(
+                "<tr><th>S.No</th><th>Date</th><th>Hour</th><th>Course</th><th>Status</th></tr>",
+                "<tr><td>1</td><td>03-11-2025</td><td>1</td><td>Maths</td><td>P</td><td>x</td><td>y</td></tr>");
+        try {
+            split(html, new HashMap<>());
+            fail("expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("not understood"));
+        }
+    }
+}
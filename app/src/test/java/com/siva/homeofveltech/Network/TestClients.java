@@ -0,0 +1,29 @@
+package com.siva.homeofveltech.Network;
+
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockWebServer;
+
+/** OkHttp clients for pointing {@link AmsClient} at a {@link MockWebServer}. */
+final class TestClients {
+
+    private TestClients() {
+    }
+
+    /** AMS urls keep their path, only scheme/host/port are swapped for the mock server's. */
+    static OkHttpClient rewritingTo(MockWebServer server, EventListener listener) {
+        HttpUrl base = server.url("/");
+        return new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    Request req = chain.request();
+                    HttpUrl url = req.url().newBuilder()
+                            .scheme(base.scheme()).host(base.host()).port(base.port())
+                            .build();
+                    return chain.proceed(req.newBuilder().url(url).build());
+                })
+                .eventListener(listener)
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.siva.homeofveltech.Storage;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CachePolicyTest {
+
+    @Test
+    public void unknownSaveTimesDoNotDragTheAverageAgeDown() {
+        long now = System.currentTimeMillis();
+        CachePolicy.onCacheShown(CachePolicy.Dataset.TIMETABLE, now - TimeUnit.HOURS.toMillis(1));
+        CachePolicy.onCacheShown(CachePolicy.Dataset.TIMETABLE, now - TimeUnit.HOURS.toMillis(3));
+        assertTrue(CachePolicy.onCacheShown(CachePolicy.Dataset.TIMETABLE, 0)); // unknown: stale
+
+        CachePolicy.AgeStats stats = CachePolicy.getStats().get(CachePolicy.Dataset.TIMETABLE);
+        assertEquals(3, stats.shown);
+        assertEquals(1, stats.stale);
+        assertEquals(TimeUnit.HOURS.toMillis(2), stats.avgAgeMs, 1000);
+        assertEquals(TimeUnit.HOURS.toMillis(3), stats.maxAgeMs, 1000);
+    }
+}
@@ -0,0 +1,101 @@
+package com.siva.homeofveltech.Utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class PipelineTest {
+
+    @Test
+    public void itemsArePersistedInSubmissionOrder() throws Exception {
+        List<Integer> out = Collections.synchronizedList(new ArrayList<>());
+        Pipeline pipeline = new Pipeline("test", 2);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(pipeline.submit(String.valueOf(i), Integer::parseInt, out::add));
+        }
+        Pipeline.Timings t = pipeline.finish();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) expected.add(i);
+        assertEquals(expected, out);
+        assertEquals(50, t.fetch.items);
+        assertEquals(50, t.parse.items);
+        assertEquals(50, t.persist.items);
+    }
+
+    @Test
+    public void failingItemsAreDroppedAndCounted() throws Exception {
+        List<Integer> out = Collections.synchronizedList(new ArrayList<>());
+        Pipeline pipeline = new Pipeline("test", 4);
+        pipeline.submit("1", Integer::parseInt, out::add);
+        pipeline.submit("x", Integer::parseInt, out::add);
+        pipeline.submit("3", Integer::parseInt, v -> {
+            throw new IllegalStateException("disk full");
+        });
+        pipeline.submit("4", Integer::parseInt, out::add);
+        Pipeline.Timings t = pipeline.finish();
+
+        assertEquals(List.of(1, 4), out);
+        assertEquals(1, t.parse.failed);
+        assertEquals(1, t.persist.failed);
+    }
+
+    @Test
+    public void slowPersistStageIsReportedAsBottleneck() throws Exception {
+        Pipeline pipeline = new Pipeline("test", 1);
+        for (int i = 0; i < 6; i++) {
+            pipeline.persist(i, v -> Thread.sleep(30));
+        }
+        Pipeline.Timings t = pipeline.finish();
+
+        assertEquals("persist", t.bottleneck().stage);
+        // capacity 1: the fetch stage had to wait for the persist stage to drain
+        assertTrue(t.fetch.blockedMs > 0);
+    }
+
+    @Test
+    public void abortDropsQueuedWorkAndRejectsNewItems() throws Exception {
+        List<Integer> out = Collections.synchronizedList(new ArrayList<>());
+        Pipeline pipeline = new Pipeline("test", 8);
+        pipeline.persist(0, v -> {
+            Thread.sleep(200);
+            out.add(v);
+        });
+        pipeline.persist(1, out::add);
+        pipeline.abort();
+
+        assertFalse(pipeline.persist(2, out::add));
+        Thread.sleep(300);
+        assertFalse(out.contains(1));
+        assertFalse(out.contains(2));
+    }
+
+    @Test
+    public void completesWhileTheCallerHoldsTheBackgroundSlot() throws Exception {
+        // a prefetch crawl is the one running background task, so the stage tasks cannot start yet
+        List<Integer> out = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<Pipeline.Timings> timings = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        TaskScheduler.get().submit(TaskScheduler.Lane.PREFETCH, "crawl", () -> {
+            try {
+                Pipeline pipeline = new Pipeline("test", 1);
+                for (int i = 0; i < 20; i++) pipeline.submit(String.valueOf(i), Integer::parseInt, out::add);
+                timings.set(pipeline.finish());
+            } catch (Exception ignored) {
+            }
+            done.countDown();
+        });
+
+        assertTrue("pipeline deadlocked behind its own caller", done.await(5, TimeUnit.SECONDS));
+        assertEquals(20, out.size());
+        assertEquals(20, timings.get().persist.items);
+        assertEquals(Integer.valueOf(19), out.get(19));
+    }
+}
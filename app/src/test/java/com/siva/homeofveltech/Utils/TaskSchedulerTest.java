@@ -0,0 +1,153 @@
+package com.siva.homeofveltech.Utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TaskSchedulerTest {
+
+    private final TaskScheduler scheduler = TaskScheduler.get();
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    private final List<CountDownLatch> gates = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (CountDownLatch gate : gates) gate.countDown(); // never leave the shared workers blocked
+        scheduler.cancel(this);
+    }
+
+    private CountDownLatch gate() {
+        CountDownLatch gate = new CountDownLatch(1);
+        gates.add(gate);
+        return gate;
+    }
+
+    /** Task that marks itself started, then holds its worker until {@code gate} opens. */
+    private CountDownLatch hold(TaskScheduler.Lane lane, String name, CountDownLatch gate) {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submit(lane, this, () -> {
+            order.add(name);
+            started.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        return started;
+    }
+
+    private CountDownLatch record(TaskScheduler.Lane lane, String name, CountDownLatch done) {
+        scheduler.submit(lane, this, () -> {
+            order.add(name);
+            done.countDown();
+        });
+        return done;
+    }
+
+    @Test
+    public void queuedWorkRunsInLaneOrderThenFifo() throws Exception {
+        // both workers busy; release only one so the backlog drains serially
+        CountDownLatch keep = gate();
+        CountDownLatch drain = gate();
+        assertTrue(hold(TaskScheduler.Lane.USER_VISIBLE, "keep", keep).await(5, TimeUnit.SECONDS));
+        assertTrue(hold(TaskScheduler.Lane.USER_VISIBLE, "drain", drain).await(5, TimeUnit.SECONDS));
+
+        CountDownLatch done = new CountDownLatch(5);
+        record(TaskScheduler.Lane.MAINTENANCE, "m1", done);
+        record(TaskScheduler.Lane.PREFETCH, "p1", done);
+        record(TaskScheduler.Lane.USER_VISIBLE, "u1", done);
+        record(TaskScheduler.Lane.PREFETCH, "p2", done);
+        record(TaskScheduler.Lane.USER_VISIBLE, "u2", done);
+        drain.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("keep", "drain", "u1", "u2", "p1", "p2", "m1"), order);
+    }
+
+    @Test
+    public void oneBackgroundTaskAtATimeLeavesAWorkerForTaps() throws Exception {
+        CountDownLatch prefetch = gate();
+        assertTrue(hold(TaskScheduler.Lane.PREFETCH, "p1", prefetch).await(5, TimeUnit.SECONDS));
+
+        CountDownLatch p2 = record(TaskScheduler.Lane.PREFETCH, "p2", new CountDownLatch(1));
+        CountDownLatch u1 = record(TaskScheduler.Lane.USER_VISIBLE, "u1", new CountDownLatch(1));
+
+        assertTrue(u1.await(5, TimeUnit.SECONDS));
+        assertFalse("second background task ran beside the first", p2.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, scheduler.getStats().get(TaskScheduler.Lane.PREFETCH).queued);
+
+        prefetch.countDown();
+        assertTrue(p2.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("p1", "u1", "p2"), order);
+    }
+
+    @Test
+    public void deferredTaskWaitsOutItsDelayWithoutBlockingOthers() throws Exception {
+        long start = System.nanoTime();
+        CountDownLatch deferred = new CountDownLatch(1);
+        scheduler.submitAfter(TaskScheduler.Lane.PREFETCH, this, 300, () -> {
+            order.add("deferred");
+            deferred.countDown();
+        });
+        CountDownLatch now = record(TaskScheduler.Lane.PREFETCH, "now", new CountDownLatch(1));
+
+        assertTrue(now.await(5, TimeUnit.SECONDS));
+        assertTrue(deferred.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+        assertEquals(Arrays.asList("now", "deferred"), order);
+    }
+
+    @Test
+    public void cancelDropsDeferredTask() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        Object tag = new Object();
+        scheduler.submitAfter(TaskScheduler.Lane.MAINTENANCE, tag, 200, ran::countDown);
+
+        scheduler.cancel(tag);
+
+        assertFalse(ran.await(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void userVisibleWorkIsNeverDeferred() {
+        scheduler.submitAfter(TaskScheduler.Lane.USER_VISIBLE, this, 100, () -> {});
+    }
+
+    @Test
+    public void cancellingATaskCancelsTasksItSubmitted() throws Exception {
+        CountDownLatch parentGate = gate();
+        CountDownLatch childStarted = new CountDownLatch(1);
+        CountDownLatch childCancelled = new CountDownLatch(1);
+        Object tag = new Object();
+
+        scheduler.submit(TaskScheduler.Lane.USER_VISIBLE, tag, () -> {
+            // the child is untagged: only the parent's token links it to the screen
+            scheduler.submit(TaskScheduler.Lane.USER_VISIBLE, null, () -> {
+                CancellationToken token = CancellationToken.current();
+                token.onCancel(childCancelled::countDown);
+                childStarted.countDown();
+                try {
+                    parentGate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            });
+            try {
+                parentGate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertTrue(childStarted.await(5, TimeUnit.SECONDS));
+
+        scheduler.cancel(tag);
+
+        assertTrue(childCancelled.await(5, TimeUnit.SECONDS));
+    }
+}